@@ -0,0 +1,273 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionList;
+import hudson.PluginWrapper;
+import hudson.Util;
+import hudson.model.Descriptor;
+import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
+import io.jenkins.plugins.casc.impl.configurators.ConfigurableConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.DataBoundConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.DescriptorConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.EnumConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.ExtensionConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.HeteroDescribableConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.PrimitiveConfigurator;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Sequence;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Configurators resolved while applying a configuration model, saved to be reused on next startup.
+ * <p>
+ * After a successful apply, the configurator the apply looked up for each type is recorded in
+ * <code>JENKINS_HOME/casc-apply-plan.json</code>, keyed by a digest of the model and of installed plugin versions.
+ * When Jenkins starts with the same model and plugins, the registry is seeded with these configurators, built
+ * directly from the recorded kind and class, instead of probing every {@link Configurator} extension for each type.
+ * Seeded configurators are kept until that apply is over.
+ * Any mismatch (unknown class, missing extension or data bound constructor) discards the whole plan, so
+ * configurators are resolved as usual.
+ */
+@Restricted(NoExternalUse.class)
+public final class ApplyPlan {
+
+    private static final Logger LOGGER = Logger.getLogger(ApplyPlan.class.getName());
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean DISABLED = Boolean.getBoolean(ApplyPlan.class.getName() + ".disabled");
+
+    private static final String EXTENSION = "extension";
+    private static final String DATA_BOUND = "dataBound";
+    private static final String HETERO_DESCRIBABLE = "heteroDescribable";
+    private static final String CONFIGURABLE = "configurable";
+    private static final String DESCRIPTOR = "descriptor";
+    private static final String EXTENSION_POINT = "extensionPoint";
+    private static final String PRIMITIVE = "primitive";
+    private static final String ENUM = "enum";
+
+    private final File file;
+
+    public ApplyPlan(@NonNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return plan under <code>JENKINS_HOME</code>, or <code>null</code> if disabled or Jenkins isn't running
+     */
+    @CheckForNull
+    public static ApplyPlan get() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (DISABLED || jenkins == null) return null;
+        return new ApplyPlan(new File(jenkins.getRootDir(), "casc-apply-plan.json"));
+    }
+
+    /**
+     * Compute the key of a plan, from the model and installed plugins.
+     * Must be called before the model is applied, as applying consumes it.
+     */
+    @NonNull
+    public static String key(@NonNull Mapping model) {
+        final MessageDigest digest = sha256();
+        update(digest, model);
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins != null) {
+            final Map<String, String> plugins = new TreeMap<>();
+            for (PluginWrapper plugin : jenkins.getPluginManager().getPlugins()) {
+                plugins.put(plugin.getShortName(), plugin.getVersion());
+            }
+            plugins.forEach((name, version) -> {
+                update(digest, name);
+                update(digest, version);
+            });
+        }
+        return Util.toHexString(digest.digest());
+    }
+
+    /**
+     * Save configurators looked up by an apply as the plan for <code>key</code>.
+     *
+     * @see ConfigurationContext#getLookups()
+     */
+    public void record(@NonNull String key, @NonNull Map<Class, Configurator> lookups) {
+        final JSONArray configurators = new JSONArray();
+        final Map<String, Configurator> resolved = new TreeMap<>();
+        lookups.forEach((type, configurator) -> resolved.put(type.getName(), configurator));
+        for (Map.Entry<String, Configurator> entry : resolved.entrySet()) {
+            final JSONObject operation = describe(entry.getValue());
+            if (operation == null) continue;
+            operation.put("type", entry.getKey());
+            configurators.add(operation);
+        }
+        final JSONObject json = new JSONObject();
+        json.put("key", key);
+        json.put("configurators", configurators);
+        try {
+            final Path target = file.toPath().toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            final Path tmp = Files.createTempFile(target.getParent(), "casc-apply-plan", ".tmp");
+            try {
+                Files.write(tmp, json.toString().getBytes(UTF_8));
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            LOGGER.log(Level.FINE, "Recorded apply plan with {0} configurators", configurators.size());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save apply plan " + file, e);
+        }
+    }
+
+    /**
+     * Seed <code>registry</code> with configurators from the plan, if it was recorded for <code>key</code>.
+     *
+     * @return number of configurators seeded, 0 if there's no matching plan or it doesn't match installed types
+     */
+    public int replay(@NonNull String key, @NonNull DefaultConfiguratorRegistry registry) {
+        if (!file.exists()) return 0;
+        final Map<Class, Configurator> configurators = new LinkedHashMap<>();
+        try {
+            final JSONObject json = JSONObject.fromObject(new String(Files.readAllBytes(file.toPath()), UTF_8));
+            if (!key.equals(json.optString("key"))) {
+                LOGGER.log(Level.FINE, "Apply plan was recorded for another configuration or plugin set");
+                return 0;
+            }
+            for (Object o : json.getJSONArray("configurators")) {
+                final JSONObject operation = (JSONObject) o;
+                final Class type = load(operation.getString("type"));
+                configurators.put(type, build(type, operation));
+            }
+        } catch (IOException | RuntimeException | ClassNotFoundException | LinkageError e) {
+            LOGGER.log(Level.FINE, "Apply plan doesn't match installed plugins, configurators will be resolved", e);
+            return 0;
+        }
+        configurators.forEach(registry::seed);
+        LOGGER.log(Level.FINE, "Seeded {0} configurators from apply plan", configurators.size());
+        return configurators.size();
+    }
+
+    @CheckForNull
+    private static JSONObject describe(Configurator configurator) {
+        final JSONObject operation = new JSONObject();
+        final String kind;
+        if (Jenkins.getInstance().getExtensionList(Configurator.class).contains(configurator)) {
+            kind = EXTENSION;
+        } else if (configurator.getClass() == DataBoundConfigurator.class) {
+            kind = DATA_BOUND;
+        } else if (configurator.getClass() == HeteroDescribableConfigurator.class) {
+            kind = HETERO_DESCRIBABLE;
+        } else if (configurator.getClass() == ConfigurableConfigurator.class) {
+            kind = CONFIGURABLE;
+        } else if (configurator.getClass() == DescriptorConfigurator.class) {
+            kind = DESCRIPTOR;
+        } else if (configurator.getClass() == ExtensionConfigurator.class) {
+            kind = EXTENSION_POINT;
+        } else if (configurator.getClass() == PrimitiveConfigurator.class) {
+            kind = PRIMITIVE;
+        } else if (configurator.getClass() == EnumConfigurator.class) {
+            kind = ENUM;
+        } else {
+            // configurator we don't know how to build again, it will be resolved as usual
+            return null;
+        }
+        operation.put("kind", kind);
+        operation.put("configurator", configurator.getClass().getName());
+        return operation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Configurator build(Class type, JSONObject operation) throws ClassNotFoundException {
+        final String kind = operation.getString("kind");
+        switch (kind) {
+            case EXTENSION:
+                final Class extension = load(operation.getString("configurator"));
+                for (Configurator c : Jenkins.getInstance().getExtensionList(Configurator.class)) {
+                    if (c.getClass() == extension && c.canConfigure(type)) return c;
+                }
+                throw new IllegalStateException("No configurator extension " + extension.getName() + " for " + type);
+            case DATA_BOUND:
+                if (DataBoundConfigurator.getDataBoundConstructor(type) == null) {
+                    throw new IllegalStateException("No data bound constructor for " + type);
+                }
+                return new DataBoundConfigurator(type);
+            case HETERO_DESCRIBABLE:
+                return new HeteroDescribableConfigurator(type);
+            case CONFIGURABLE:
+                return new ConfigurableConfigurator(type);
+            case DESCRIPTOR:
+                final ExtensionList<Descriptor> descriptors = Jenkins.getInstance().getExtensionList(type);
+                if (descriptors.isEmpty()) throw new IllegalStateException("No descriptor for " + type);
+                return new DescriptorConfigurator(descriptors.get(0));
+            case EXTENSION_POINT:
+                return new ExtensionConfigurator(type);
+            case PRIMITIVE:
+                return new PrimitiveConfigurator(type);
+            case ENUM:
+                return new EnumConfigurator(type);
+            default:
+                throw new IllegalStateException("Unknown configurator kind " + kind);
+        }
+    }
+
+    private static Class load(String name) throws ClassNotFoundException {
+        return Class.forName(name, false, Jenkins.getInstance().getPluginManager().uberClassLoader);
+    }
+
+    private static void update(MessageDigest digest, CNode node) {
+        if (node == null) {
+            digest.update((byte) 0);
+        } else if (node instanceof Mapping) {
+            digest.update((byte) 'M');
+            final Mapping mapping = (Mapping) node;
+            for (String key : new TreeSet<>(mapping.keySet())) {
+                update(digest, key);
+                update(digest, mapping.get(key));
+            }
+            digest.update((byte) '}');
+        } else if (node instanceof Sequence) {
+            digest.update((byte) 'S');
+            for (CNode element : (Sequence) node) {
+                update(digest, element);
+            }
+            digest.update((byte) ']');
+        } else {
+            digest.update((byte) 'V');
+            update(digest, node.toString());
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        final byte[] bytes = String.valueOf(s).getBytes(UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Records where time is spent while configuration is applied, as a call tree keyed by configuration path
+ * (for example <code>jenkins/clouds[3]/kubernetes/templates</code>).
+ * <p>
+ * Profiling is disabled by default, and then only costs a static field read per instrumented call. It is enabled by
+ * setting the <code>io.jenkins.plugins.casc.ApplyProfiler.enabled</code> system property to <code>true</code>. The
+ * report of the latest apply is exposed on the Configuration as Code management page.
+ * <p>
+ * Each node records inclusive wall time, invocation count and an estimate of the bytes allocated by the calling
+ * thread, when the JVM supports thread allocation accounting. Elements of a sequence built in parallel are recorded
+ * on the worker thread, so their parent may report less time than the sum of its children.
+ */
+@Restricted(NoExternalUse.class)
+public final class ApplyProfiler {
+
+    private static final Logger LOGGER = Logger.getLogger(ApplyProfiler.class.getName());
+
+    /** Pseudo path segment for the check pass run before configuration is applied. */
+    public static final String CHECK = "(check)";
+    /** Pseudo path segment for component instantiation through its constructor. */
+    public static final String CONSTRUCTOR = "(constructor)";
+    /** Pseudo path segment for attribute value assignment. */
+    public static final String SET_VALUE = "(set)";
+    /** Pseudo path segment for secret resolution. */
+    public static final String SECRETS = "(secrets)";
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean ENABLED = Boolean.getBoolean(ApplyProfiler.class.getName() + ".enabled");
+
+    private static final ThreadLocal<Node> CURRENT = new ThreadLocal<>();
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocations();
+
+    private static volatile Report latest;
+
+    private ApplyProfiler() {
+    }
+
+    /**
+     * Start profiling an apply on the current thread.
+     * @return the report being recorded, or <code>null</code> if profiling is disabled
+     */
+    @CheckForNull
+    public static Report start() {
+        if (!ENABLED) return null;
+        final Report report = new Report();
+        CURRENT.set(report.root);
+        report.frame = new Frame(report.root, null);
+        return report;
+    }
+
+    /**
+     * Stop profiling the current thread and publish <code>report</code> as the latest one.
+     */
+    public static void finish(@CheckForNull Report report) {
+        if (report == null) return;
+        report.frame.close();
+        CURRENT.remove();
+        latest = report;
+        LOGGER.log(Level.FINE, "Configuration applied in {0}ms", report.getDuration());
+    }
+
+    /**
+     * Enter a child of the current node.
+     * @return frame to be closed when leaving the node, or <code>null</code> if not profiling
+     */
+    @CheckForNull
+    public static Frame enter(@NonNull String segment) {
+        if (!ENABLED) return null;
+        final Node current = CURRENT.get();
+        if (current == null) return null;
+        return new Frame(current.child(segment), current);
+    }
+
+    /**
+     * Enter the node of the <code>index</code>th element of a sequence.
+     */
+    @CheckForNull
+    public static Frame enterElement(int index) {
+        if (!ENABLED || CURRENT.get() == null) return null;
+        return enter("[" + index + "]");
+    }
+
+    /**
+     * Enter the node of the component built by <code>configurator</code>, unless current node is already named after
+     * it, as for root elements or plain attributes named after their type.
+     */
+    @CheckForNull
+    public static Frame enterComponent(@NonNull Configurator configurator) {
+        if (!ENABLED) return null;
+        final Node current = CURRENT.get();
+        if (current == null) return null;
+        final String name = configurator.getName();
+        if (name.equalsIgnoreCase(current.segment)) return null;
+        return new Frame(current.child(name), current);
+    }
+
+    /**
+     * @return the node for the current thread, to be {@link #attach(Node) attached} to some worker thread
+     */
+    @CheckForNull
+    static Node current() {
+        return ENABLED ? CURRENT.get() : null;
+    }
+
+    /**
+     * Make <code>node</code> the current node for the calling thread.
+     * @return the previous node, to be restored once done
+     */
+    @CheckForNull
+    static Node attach(@CheckForNull Node node) {
+        if (node == null && CURRENT.get() == null) return null;
+        final Node previous = CURRENT.get();
+        if (node == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(node);
+        }
+        return previous;
+    }
+
+    /**
+     * @return report of the latest profiled apply, if any
+     */
+    @CheckForNull
+    public static Report getLatest() {
+        return latest;
+    }
+
+    private static long allocated() {
+        if (ALLOCATIONS == null) return 0;
+        return ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocations() {
+        try {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+                if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                    return sun;
+                }
+            }
+        } catch (LinkageError e) {
+            LOGGER.log(Level.FINE, "Thread allocation accounting isn't available", e);
+        }
+        return null;
+    }
+
+    /**
+     * Time spent in a node, from {@link #enter(String)} until closed.
+     */
+    public static final class Frame implements AutoCloseable {
+
+        private final Node node;
+        private final Node previous;
+        private final long start;
+        private final long allocated;
+
+        private Frame(Node node, Node previous) {
+            this.node = node;
+            this.previous = previous;
+            CURRENT.set(node);
+            this.allocated = allocated();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            node.nanos.add(System.nanoTime() - start);
+            node.bytes.add(Math.max(0, allocated() - allocated));
+            node.count.increment();
+            if (previous != null) {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * A node of the call tree, children are kept in invocation order.
+     */
+    public static final class Node {
+
+        private final String segment;
+        private final Map<String, Node> children = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private Node(String segment) {
+            this.segment = segment;
+        }
+
+        private Node child(String segment) {
+            return children.computeIfAbsent(segment, Node::new);
+        }
+
+        public String getSegment() {
+            return segment;
+        }
+
+        public long getMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getAllocatedBytes() {
+            return bytes.sum();
+        }
+
+        public List<Node> getChildren() {
+            synchronized (children) {
+                return new ArrayList<>(children.values());
+            }
+        }
+
+        JSONObject toJSON() {
+            final JSONObject json = new JSONObject();
+            json.put("segment", segment);
+            json.put("millis", getMillis());
+            json.put("count", getCount());
+            json.put("allocatedBytes", getAllocatedBytes());
+            final JSONArray array = new JSONArray();
+            for (Node child : getChildren()) {
+                array.add(child.toJSON());
+            }
+            json.put("children", array);
+            return json;
+        }
+    }
+
+    /**
+     * Call tree of one apply.
+     */
+    public static final class Report {
+
+        private final long timestamp = System.currentTimeMillis();
+        private final Node root = new Node("");
+        private Frame frame;
+
+        public Date getDate() {
+            return new Date(timestamp);
+        }
+
+        public long getDuration() {
+            return root.getMillis();
+        }
+
+        public Node getRoot() {
+            return root;
+        }
+
+        /**
+         * @return nodes of the tree with their configuration path, depth first and in invocation order
+         */
+        public List<Entry> getEntries() {
+            final List<Entry> entries = new ArrayList<>();
+            for (Node child : root.getChildren()) {
+                collect(child, "", 0, entries);
+            }
+            return entries;
+        }
+
+        private static void collect(Node node, String parent, int depth, List<Entry> entries) {
+            final String path = parent.isEmpty() ? node.segment
+                    : node.segment.startsWith("[") ? parent + node.segment : parent + '/' + node.segment;
+            entries.add(new Entry(path, depth, node));
+            for (Node child : node.getChildren()) {
+                collect(child, path, depth + 1, entries);
+            }
+        }
+
+        public JSONObject toJSON() {
+            final JSONObject json = new JSONObject();
+            json.put("timestamp", timestamp);
+            json.put("millis", getDuration());
+            final JSONArray nodes = new JSONArray();
+            for (Entry entry : getEntries()) {
+                final JSONObject node = new JSONObject();
+                node.put("path", entry.getPath());
+                node.put("millis", entry.node.getMillis());
+                node.put("count", entry.node.getCount());
+                node.put("allocatedBytes", entry.node.getAllocatedBytes());
+                nodes.add(node);
+            }
+            json.put("nodes", nodes);
+            json.put("tree", root.toJSON());
+            return json;
+        }
+    }
+
+    /**
+     * A node of the report with its full configuration path.
+     */
+    public static final class Entry {
+
+        private final String path;
+        private final int depth;
+        private final Node node;
+
+        private Entry(String path, int depth, Node node) {
+            this.path = path;
+            this.depth = depth;
+            this.node = node;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public Node getNode() {
+            return node;
+        }
+    }
+}
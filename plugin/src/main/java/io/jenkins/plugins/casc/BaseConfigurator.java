@@ -21,7 +21,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -263,12 +262,23 @@ public abstract class BaseConfigurator<T> implements Configurator<T> {
     @NonNull
     @Override
     public T configure(CNode c, ConfigurationContext context) throws ConfiguratorException {
-        final Mapping mapping = (c != null ? c.asMapping() : Mapping.getEmpty());
+        try (ApplyProfiler.Frame frame = ApplyProfiler.enterComponent(this)) {
+            return doConfigure(c != null ? c.asMapping() : Mapping.getEmpty(), context);
+        }
+    }
+
+    private T doConfigure(Mapping mapping, ConfigurationContext context) throws ConfiguratorException {
         final T instance = instance(mapping, context);
         if (instance instanceof Saveable) {
+            final SaveSession session = context.getSaveSession();
             try (BulkChange bc = new BulkChange((Saveable) instance) ){
                 configure(mapping, instance, false, context);
-                bc.commit();
+                if (session != null) {
+                    // aborting the BulkChange on close, the session will save instance once apply completes
+                    session.defer((Saveable) instance);
+                } else {
+                    bc.commit();
+                }
             } catch (IOException e) {
                 throw new ConfiguratorException("Failed to save "+instance, e);
             }
@@ -282,10 +292,12 @@ public abstract class BaseConfigurator<T> implements Configurator<T> {
 
     @Override
     public T check(CNode c, ConfigurationContext context) throws ConfiguratorException {
-        final Mapping mapping = (c != null ? c.asMapping() : Mapping.getEmpty());
-        final T instance = instance(mapping, context);
-        configure(mapping, instance, true, context);
-        return instance;
+        try (ApplyProfiler.Frame frame = ApplyProfiler.enterComponent(this)) {
+            final Mapping mapping = (c != null ? c.asMapping() : Mapping.getEmpty());
+            final T instance = instance(mapping, context);
+            configure(mapping, instance, true, context);
+            return instance;
+        }
     }
 
     /**
@@ -297,7 +309,7 @@ public abstract class BaseConfigurator<T> implements Configurator<T> {
      * @throws ConfiguratorException something went wrong...
      */
     protected void configure(Mapping config, T instance, boolean dryrun, ConfigurationContext context) throws ConfiguratorException {
-        final Set<Attribute<T,?>> attributes = describe();
+        final Set<Attribute<T,?>> attributes = context.describe(this);
         for (Attribute<T,?> attribute : attributes) {
 
             final String name = attribute.getName();
@@ -335,29 +347,26 @@ public abstract class BaseConfigurator<T> implements Configurator<T> {
                 final Class k = attribute.getType();
                 final Configurator configurator = context.lookupOrFail(k);
 
-                final Object valueToSet;
-                if (attribute.isMultiple()) {
-                    List<Object> values = new ArrayList<>();
-                    for (CNode o : sub.asSequence()) {
-                        Object value =
+                try (ApplyProfiler.Frame frame = ApplyProfiler.enter(name)) {
+                    final Object valueToSet;
+                    if (attribute.isMultiple()) {
+                        valueToSet = ParallelConstruction.build(configurator, sub.asSequence(), context, o ->
+                                    dryrun ?
+                                            configurator.check(o, context):
+                                            configurator.configure(o, context));
+                    } else {
+                        valueToSet =
                                 dryrun ?
-                                        configurator.check(o, context):
-                                        configurator.configure(o, context);
-                        values.add(value);
+                                        configurator.check(sub, context):
+                                        configurator.configure(sub, context);
                     }
-                    valueToSet= values;
-                } else {
-                    valueToSet =
-                            dryrun ?
-                                    configurator.check(sub, context):
-                                    configurator.configure(sub, context);
-                }
 
-                if (!dryrun) {
-                    try {
-                        ((Attribute) attribute).setValue(instance, valueToSet); // require type erasure to set Object vs ?
-                    } catch (Exception ex) {
-                        throw new ConfiguratorException(configurator, "Failed to set attribute " + attribute, ex);
+                    if (!dryrun) {
+                        try (ApplyProfiler.Frame set = ApplyProfiler.enter(ApplyProfiler.SET_VALUE)) {
+                            ((Attribute) attribute).setValue(instance, valueToSet); // require type erasure to set Object vs ?
+                        } catch (Exception ex) {
+                            throw new ConfiguratorException(configurator, "Failed to set attribute " + attribute, ex);
+                        }
                     }
                 }
             }
@@ -0,0 +1,321 @@
+package io.jenkins.plugins.casc;
+
+import com.google.common.cache.CacheStats;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionList;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Sequence;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Cumulative and last run Configuration as Code performance counters, registered as a platform MXBean.
+ *
+ * @see CascMetricsMXBean
+ */
+@Restricted(NoExternalUse.class)
+public final class CascMetrics implements CascMetricsMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(CascMetrics.class.getName());
+
+    public static final String OBJECT_NAME = "io.jenkins.plugins.casc:type=ConfigurationAsCode";
+
+    /** Number of latest reloads percentiles are computed over. */
+    public static final int WINDOW = 128;
+
+    private static final CascMetrics INSTANCE = new CascMetrics();
+
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+    private final long[] reloadNanos = new long[WINDOW];
+    private long reloadIndex;
+    private volatile long lastReloadNanos;
+
+    private final LongAdder parsedChars = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final AtomicLong lastParsedChars = new AtomicLong();
+    private final AtomicLong lastParseNanos = new AtomicLong();
+
+    private final LongAdder mergeNanos = new LongAdder();
+    private final AtomicLong lastMergeNanos = new AtomicLong();
+
+    private volatile long lastModelNodes;
+
+    private final Map<String, LongAdder> secretLookups = new ConcurrentHashMap<>();
+
+    private final LongAdder xmlSaves = new LongAdder();
+    private volatile long lastXmlSaves;
+
+    private final Map<String, Long> lastFetchNanos = new ConcurrentHashMap<>();
+
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder exportBytes = new LongAdder();
+    private volatile long lastExportNanos;
+    private volatile long lastExportBytes;
+
+    CascMetrics() {
+    }
+
+    @NonNull
+    public static CascMetrics get() {
+        return INSTANCE;
+    }
+
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void register() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(INSTANCE, name);
+            } catch (InstanceAlreadyExistsException e) {
+                // Jenkins restarted within the same JVM, e.g. in tests
+                server.unregisterMBean(name);
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException | SecurityException e) {
+            LOGGER.log(Level.WARNING, "Failed to register Configuration as Code MBean", e);
+        }
+    }
+
+    // --- recorders
+
+    /**
+     * Record a reload, from reading sources to applying configuration.
+     */
+    public void recordReload(long nanos, boolean success) {
+        reloads.increment();
+        if (!success) reloadFailures.increment();
+        lastReloadNanos = nanos;
+        synchronized (reloadNanos) {
+            reloadNanos[(int) (reloadIndex++ % WINDOW)] = nanos;
+        }
+    }
+
+    public void recordParse(long chars, long nanos) {
+        parsedChars.add(chars);
+        parseNanos.add(nanos);
+        lastParsedChars.set(chars);
+        lastParseNanos.set(nanos);
+    }
+
+    public void recordMerge(long nanos) {
+        mergeNanos.add(nanos);
+        lastMergeNanos.set(nanos);
+    }
+
+    public void recordModel(@CheckForNull CNode model) {
+        lastModelNodes = count(model);
+    }
+
+    public void recordSecretLookup(@NonNull String source) {
+        secretLookups.computeIfAbsent(source, s -> new LongAdder()).increment();
+    }
+
+    public void recordXmlSaves(int writes) {
+        xmlSaves.add(writes);
+        lastXmlSaves = writes;
+    }
+
+    public void recordFetch(@NonNull String source, long nanos) {
+        lastFetchNanos.put(source, nanos);
+    }
+
+    public void recordExport(long nanos, long bytes) {
+        exports.increment();
+        exportBytes.add(bytes);
+        lastExportNanos = nanos;
+        lastExportBytes = bytes;
+    }
+
+    static long count(@CheckForNull CNode node) {
+        if (node == null) return 0;
+        long count = 1;
+        if (node instanceof Mapping) {
+            for (CNode child : ((Mapping) node).values()) {
+                count += count(child);
+            }
+        } else if (node instanceof Sequence) {
+            for (CNode child : (Sequence) node) {
+                count += count(child);
+            }
+        }
+        return count;
+    }
+
+    // --- MXBean attributes
+
+    @Override
+    public long getReloadCount() {
+        return reloads.sum();
+    }
+
+    @Override
+    public long getReloadFailures() {
+        return reloadFailures.sum();
+    }
+
+    @Override
+    public long getLastReloadMillis() {
+        return millis(lastReloadNanos);
+    }
+
+    @Override
+    public long getReloadMillisP50() {
+        return reloadPercentile(50);
+    }
+
+    @Override
+    public long getReloadMillisP95() {
+        return reloadPercentile(95);
+    }
+
+    @Override
+    public long getReloadMillisP99() {
+        return reloadPercentile(99);
+    }
+
+    @Override
+    public long getReloadMillisMax() {
+        return reloadPercentile(100);
+    }
+
+    long reloadPercentile(int percentile) {
+        final long[] window;
+        synchronized (reloadNanos) {
+            window = Arrays.copyOf(reloadNanos, (int) Math.min(reloadIndex, WINDOW));
+        }
+        if (window.length == 0) return 0;
+        Arrays.sort(window);
+        final int rank = (int) Math.ceil(percentile / 100.0 * window.length);
+        return millis(window[Math.max(0, rank - 1)]);
+    }
+
+    @Override
+    public long getParsedCharacters() {
+        return parsedChars.sum();
+    }
+
+    @Override
+    public long getLastParsedCharacters() {
+        return lastParsedChars.get();
+    }
+
+    @Override
+    public long getParseMillis() {
+        return millis(parseNanos.sum());
+    }
+
+    @Override
+    public long getLastParseMillis() {
+        return millis(lastParseNanos.get());
+    }
+
+    @Override
+    public long getMergeMillis() {
+        return millis(mergeNanos.sum());
+    }
+
+    @Override
+    public long getLastMergeMillis() {
+        return millis(lastMergeNanos.get());
+    }
+
+    @Override
+    public long getLastModelNodes() {
+        return lastModelNodes;
+    }
+
+    @Override
+    public long getRegistryHits() {
+        final CacheStats stats = registryStats();
+        return stats != null ? stats.hitCount() : 0;
+    }
+
+    @Override
+    public long getRegistryMisses() {
+        final CacheStats stats = registryStats();
+        return stats != null ? stats.missCount() : 0;
+    }
+
+    @CheckForNull
+    private static CacheStats registryStats() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins == null) return null;
+        final ExtensionList<DefaultConfiguratorRegistry> registries = jenkins.getExtensionList(DefaultConfiguratorRegistry.class);
+        return registries.isEmpty() ? null : registries.get(0).getCacheStats();
+    }
+
+    @Override
+    public long getSecretLookups() {
+        return secretLookups.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public Map<String, Long> getSecretLookupsBySource() {
+        final Map<String, Long> result = new TreeMap<>();
+        secretLookups.forEach((source, count) -> result.put(source, count.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getLastFetchMillisBySource() {
+        final Map<String, Long> result = new TreeMap<>();
+        lastFetchNanos.forEach((source, nanos) -> result.put(source, millis(nanos)));
+        return result;
+    }
+
+    @Override
+    public long getXmlSaves() {
+        return xmlSaves.sum();
+    }
+
+    @Override
+    public long getLastXmlSaves() {
+        return lastXmlSaves;
+    }
+
+    @Override
+    public long getExportCount() {
+        return exports.sum();
+    }
+
+    @Override
+    public long getLastExportMillis() {
+        return millis(lastExportNanos);
+    }
+
+    @Override
+    public long getLastExportBytes() {
+        return lastExportBytes;
+    }
+
+    @Override
+    public long getExportBytes() {
+        return exportBytes.sum();
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
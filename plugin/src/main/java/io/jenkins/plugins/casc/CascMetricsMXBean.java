@@ -0,0 +1,65 @@
+package io.jenkins.plugins.casc;
+
+import java.util.Map;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Configuration as Code performance counters, exposed over JMX as
+ * <code>io.jenkins.plugins.casc:type=ConfigurationAsCode</code>.
+ * <p>
+ * Durations are in milliseconds. Percentiles are computed over the latest {@link CascMetrics#WINDOW} reloads.
+ */
+@Restricted(NoExternalUse.class)
+public interface CascMetricsMXBean {
+
+    long getReloadCount();
+
+    long getReloadFailures();
+
+    long getLastReloadMillis();
+
+    long getReloadMillisP50();
+
+    long getReloadMillisP95();
+
+    long getReloadMillisP99();
+
+    long getReloadMillisMax();
+
+    long getParsedCharacters();
+
+    long getLastParsedCharacters();
+
+    long getParseMillis();
+
+    long getLastParseMillis();
+
+    long getMergeMillis();
+
+    long getLastMergeMillis();
+
+    long getLastModelNodes();
+
+    long getRegistryHits();
+
+    long getRegistryMisses();
+
+    long getSecretLookups();
+
+    Map<String, Long> getSecretLookupsBySource();
+
+    Map<String, Long> getLastFetchMillisBySource();
+
+    long getXmlSaves();
+
+    long getLastXmlSaves();
+
+    long getExportCount();
+
+    long getLastExportMillis();
+
+    long getLastExportBytes();
+
+    long getExportBytes();
+}
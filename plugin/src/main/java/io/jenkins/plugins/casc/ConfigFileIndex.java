@@ -0,0 +1,246 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Index of configuration files found under configuration directories.
+ * <p>
+ * Directories are walked once, pruning hidden directories (like <code>.git</code>) without descending into them.
+ * The index records the modification time of every directory it walked, and size and modification time of every
+ * file it found. As long as no directory has been modified since, entries can't have been added or removed, so
+ * revalidating the index only costs a <code>stat</code> per directory and file.
+ * <p>
+ * File systems with coarse timestamps can't tell a change made right after a scan, so directories modified shortly
+ * before the scan aren't trusted and trigger a new scan.
+ */
+@Restricted(NoExternalUse.class)
+public final class ConfigFileIndex {
+
+    /** Directories modified less than this many milliseconds before a scan are checked again by walking them. */
+    static final long RACY_MILLIS = 2000;
+
+    private final PathMatcher matcher;
+    private final Map<Path, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong scans = new AtomicLong();
+
+    public ConfigFileIndex(@NonNull String pattern) {
+        this.matcher = FileSystems.getDefault().getPathMatcher(pattern);
+    }
+
+    /**
+     * List configuration files under <code>root</code> directory, sorted.
+     */
+    @NonNull
+    public List<Path> list(@NonNull Path root) throws IOException {
+        return get(root).getPaths();
+    }
+
+    /**
+     * Get an up-to-date snapshot of configuration files under <code>root</code> directory.
+     */
+    @NonNull
+    public Snapshot get(@NonNull Path root) throws IOException {
+        final Path key = root.toAbsolutePath().normalize();
+        final Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.isDirectoryStructureUnchanged()) {
+            try {
+                final Snapshot revalidated = snapshot.revalidate();
+                if (revalidated != snapshot) {
+                    snapshots.put(key, revalidated);
+                }
+                return revalidated;
+            } catch (IOException e) {
+                // some file has been removed since we checked directories, scan again
+            }
+        }
+        final Snapshot scanned = scan(root);
+        snapshots.put(key, scanned);
+        return scanned;
+    }
+
+    /**
+     * @return number of directory walks performed so far
+     */
+    long getScans() {
+        return scans.get();
+    }
+
+    private Snapshot scan(Path root) throws IOException {
+        scans.incrementAndGet();
+        final long scannedAt = System.currentTimeMillis();
+        final Map<Path, Long> directories = new LinkedHashMap<>();
+        final List<Path> paths = new ArrayList<>();
+
+        Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(root) && isHidden(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directories.put(dir, attrs.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                // symbolic links aren't followed, so links to directories are reported as files
+                if (!attrs.isDirectory() && !isHidden(file) && matcher.matches(file)) {
+                    paths.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Collections.sort(paths);
+        final List<Entry> files = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            files.add(Entry.of(path));
+        }
+        return new Snapshot(directories, files, scannedAt);
+    }
+
+    private static boolean isHidden(Path path) {
+        final Path name = path.getFileName();
+        return name != null && name.toString().startsWith(".");
+    }
+
+    /**
+     * Configuration files found under a directory at some point in time.
+     */
+    public static final class Snapshot {
+
+        private final Map<Path, Long> directories;
+        private final List<Entry> files;
+        private final long scannedAt;
+
+        private Snapshot(Map<Path, Long> directories, List<Entry> files, long scannedAt) {
+            this.directories = directories;
+            this.files = Collections.unmodifiableList(files);
+            this.scannedAt = scannedAt;
+        }
+
+        @NonNull
+        public List<Entry> getFiles() {
+            return files;
+        }
+
+        @NonNull
+        public List<Path> getPaths() {
+            final List<Path> paths = new ArrayList<>(files.size());
+            for (Entry file : files) {
+                paths.add(file.path);
+            }
+            return paths;
+        }
+
+        private boolean isDirectoryStructureUnchanged() {
+            for (Map.Entry<Path, Long> directory : directories.entrySet()) {
+                final long lastModified = directory.getValue();
+                if (lastModified >= scannedAt - RACY_MILLIS) {
+                    return false;
+                }
+                try {
+                    final BasicFileAttributes attrs = Files.readAttributes(directory.getKey(), BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (!attrs.isDirectory() || attrs.lastModifiedTime().toMillis() != lastModified) {
+                        return false;
+                    }
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return this snapshot if no file has changed, an updated one otherwise
+         */
+        private Snapshot revalidate() throws IOException {
+            List<Entry> updated = null;
+            for (int i = 0; i < files.size(); i++) {
+                final Entry file = files.get(i);
+                final Entry current = Entry.of(file.path);
+                if (!current.equals(file)) {
+                    if (updated == null) {
+                        updated = new ArrayList<>(files);
+                    }
+                    updated.set(i, current);
+                }
+            }
+            return updated == null ? this : new Snapshot(directories, updated, scannedAt);
+        }
+    }
+
+    /**
+     * A configuration file, with its size and modification time.
+     */
+    public static final class Entry {
+
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        private Entry(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        static Entry of(Path path) throws IOException {
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                // dangling symbolic link
+                attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            }
+            return new Entry(path, attrs.size(), attrs.lastModifiedTime().toMillis());
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            final Entry entry = (Entry) o;
+            return size == entry.size && lastModified == entry.lastModified && path.equals(entry.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+    }
+}
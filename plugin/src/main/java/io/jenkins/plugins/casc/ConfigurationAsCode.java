@@ -15,10 +15,10 @@ import hudson.security.ACL;
 import hudson.security.ACLContext;
 import hudson.util.FormValidation;
 import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
+import io.jenkins.plugins.casc.jfr.CascEvents;
 import io.jenkins.plugins.casc.model.CNode;
 import io.jenkins.plugins.casc.model.Mapping;
 import io.jenkins.plugins.casc.model.Scalar;
-import io.jenkins.plugins.casc.model.Scalar.Format;
 import io.jenkins.plugins.casc.model.Sequence;
 import io.jenkins.plugins.casc.model.Source;
 import io.jenkins.plugins.casc.snakeyaml.DumperOptions;
@@ -32,7 +32,11 @@ import io.jenkins.plugins.casc.snakeyaml.nodes.SequenceNode;
 import io.jenkins.plugins.casc.snakeyaml.nodes.Tag;
 import io.jenkins.plugins.casc.snakeyaml.resolver.Resolver;
 import io.jenkins.plugins.casc.snakeyaml.serializer.Serializer;
+import io.jenkins.plugins.casc.yaml.ConfigurationWriter;
+import io.jenkins.plugins.casc.yaml.ExportFormat;
+import io.jenkins.plugins.casc.yaml.ExportWriter;
 import io.jenkins.plugins.casc.yaml.MergeStrategyFactory;
+import io.jenkins.plugins.casc.yaml.ModelSnapshot;
 import io.jenkins.plugins.casc.yaml.YamlSource;
 import io.jenkins.plugins.casc.yaml.YamlUtils;
 import java.io.ByteArrayOutputStream;
@@ -66,8 +70,6 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 import javax.inject.Inject;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletResponse;
@@ -76,6 +78,7 @@ import jenkins.model.Jenkins;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang.StringUtils;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -88,8 +91,6 @@ import org.kohsuke.stapler.verb.POST;
 
 import static io.jenkins.plugins.casc.SchemaGeneration.writeJSONSchema;
 import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.FlowStyle.BLOCK;
-import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.ScalarStyle.DOUBLE_QUOTED;
-import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.ScalarStyle.LITERAL;
 import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.ScalarStyle.PLAIN;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
@@ -109,11 +110,19 @@ public class ConfigurationAsCode extends ManagementLink {
 
     private static final Logger LOGGER = Logger.getLogger(ConfigurationAsCode.class.getName());
 
+    /** Index of configuration files in configuration directories, revalidated on each reload. */
+    private static final ConfigFileIndex CONFIG_FILES = new ConfigFileIndex(YAML_FILES_PATTERN);
+
+    /** Configuration is applied by one thread at a time, whatever triggered it. */
+    private static final Object APPLY_LOCK = new Object();
+
     @Inject
     private DefaultConfiguratorRegistry registry;
 
     private long lastTimeLoaded;
 
+    private transient SaveSession lastSaveSession;
+
     private List<String> sources = Collections.emptyList();
 
     @CheckForNull
@@ -143,6 +152,15 @@ public class ConfigurationAsCode extends ManagementLink {
         return new Date(lastTimeLoaded);
     }
 
+    /**
+     * @return the {@link SaveSession} of the last configuration apply, to check XML writes it caused
+     */
+    @CheckForNull
+    @Restricted(NoExternalUse.class)
+    public SaveSession getLastSaveSession() {
+        return lastSaveSession;
+    }
+
     public List<String> getSources() {
         return sources;
     }
@@ -154,10 +172,45 @@ public class ConfigurationAsCode extends ManagementLink {
             response.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        configure();
+        final ReloadQueue queue = ReloadQueue.get();
+        // wait by default, so a failing reload is reported on the error page
+        final ReloadQueue.Reload reload = Boolean.parseBoolean(request.getParameter(TokenReloadAction.ASYNC_QUERY_PARAMETER))
+                ? queue.submit("web")
+                : queue.reloadAndWait("web");
+        response.setHeader(ReloadQueue.RELOAD_ID_HEADER, String.valueOf(reload.getId()));
         response.sendRedirect("");
     }
 
+    /**
+     * Report status of the reload with given <code>id</code>, or of latest reloads if none is set.
+     */
+    @Restricted(NoExternalUse.class)
+    public void doReloadStatus(StaplerRequest request, StaplerResponse response) throws Exception {
+        if (!Jenkins.getInstance().hasPermission(Jenkins.ADMINISTER)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        final String id = request.getParameter("id");
+        final String json;
+        if (id == null) {
+            json = ReloadQueue.get().toJSON().toString(2);
+        } else {
+            ReloadQueue.Reload reload;
+            try {
+                reload = ReloadQueue.get().getReload(Long.parseLong(id));
+            } catch (NumberFormatException e) {
+                reload = null;
+            }
+            if (reload == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            json = reload.toJSON().toString(2);
+        }
+        response.setContentType("application/json; charset=utf-8");
+        response.getWriter().write(json);
+    }
+
     @RequirePOST
     @Restricted(NoExternalUse.class)
     public void doReplace(StaplerRequest request, StaplerResponse response) throws Exception {
@@ -253,7 +306,7 @@ public class ConfigurationAsCode extends ManagementLink {
         }
     }
 
-    private List<YamlSource> getConfigFromSources(List<String> newSources) throws ConfiguratorException {
+    List<YamlSource> getConfigFromSources(List<String> newSources) throws ConfiguratorException {
         List<YamlSource> sources = new ArrayList<>();
 
         for (String p : newSources) {
@@ -282,7 +335,12 @@ public class ConfigurationAsCode extends ManagementLink {
             }
         }
         detectVaultPluginMissing();
-        get().configure();
+        final StartupPreparation.Prepared prepared = StartupPreparation.take();
+        if (prepared != null) {
+            get().configure(prepared);
+        } else {
+            get().configure();
+        }
     }
 
     /**
@@ -293,6 +351,25 @@ public class ConfigurationAsCode extends ManagementLink {
         configureWith(getStandardConfigSources());
     }
 
+    /**
+     * Apply configuration prepared while Jenkins was starting.
+     */
+    void configure(StartupPreparation.Prepared prepared) throws ConfiguratorException {
+        sources = Collections.unmodifiableList(prepared.sources);
+        synchronized (APPLY_LOCK) {
+            lastTimeLoaded = System.currentTimeMillis();
+            final long start = System.nanoTime();
+            boolean success = false;
+            try {
+                CascMetrics.get().recordModel(prepared.model);
+                configureWith(prepared.model, false);
+                success = true;
+            } finally {
+                CascMetrics.get().recordReload(prepared.nanos + System.nanoTime() - start, success);
+            }
+        }
+    }
+
     private List<YamlSource> getStandardConfigSources() throws ConfiguratorException {
         List<YamlSource> configs = new ArrayList<>();
 
@@ -304,7 +381,8 @@ public class ConfigurationAsCode extends ManagementLink {
         return configs;
     }
 
-    private List<String> getStandardConfig() {
+    @Restricted(NoExternalUse.class)
+    public List<String> getStandardConfig() {
         List<String> configParameters = getBundledCasCURIs();
         CasCGlobalConfig casc = GlobalConfiguration.all().get(CasCGlobalConfig.class);
         String cascPath = casc != null ? casc.getConfigurationPath() : null;
@@ -413,9 +491,89 @@ public class ConfigurationAsCode extends ManagementLink {
             return;
         }
 
-        res.setContentType("application/x-yaml; charset=utf-8");
-        res.addHeader("Content-Disposition", "attachment; filename=jenkins.yaml");
-        export(res.getOutputStream());
+        final ExportPath path;
+        final ExportFormat format;
+        try {
+            path = exportPath(req);
+            format = ExportFormat.of(req.getParameter("format"));
+        } catch (ConfiguratorException | IllegalArgumentException e) {
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (notModified(req, res, path, format)) {
+            return;
+        }
+        res.setContentType(format.getContentType() + "; charset=utf-8");
+        res.addHeader("Content-Disposition", "attachment; filename=jenkins." + format.getExtension());
+        try {
+            export(res.getOutputStream(), path, format);
+        } catch (ConfiguratorException e) {
+            // a path not matching the configuration model is only detected once described, before anything is written
+            if (path == null || res.isCommitted()) throw e;
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * @return export path requested by the <code>path</code> parameter, <code>null</code> for a full export
+     */
+    @CheckForNull
+    private static ExportPath exportPath(StaplerRequest req) throws ConfiguratorException {
+        final String path = req.getParameter("path");
+        return StringUtils.isBlank(path) ? null : ExportPath.parse(path);
+    }
+
+    /**
+     * Set the export ETag, if any, on the response. The ETag of a partial or non YAML export also depends on the path
+     * and format, so it never matches another representation of the same configuration.
+     * @return <code>true</code> if the client already has the current export, and has been answered so
+     */
+    private static boolean notModified(StaplerRequest req, StaplerResponse res, @CheckForNull ExportPath path,
+                                       @NonNull ExportFormat format) {
+        String etag = ExportCache.get().getETag();
+        if (etag == null) {
+            return false;
+        }
+        if (path != null || format != ExportFormat.YAML) {
+            etag = etag.substring(0, etag.length() - 1) + '-' + format.getExtension()
+                    + (path != null ? "-" + Util.getDigestOf(path.toString()) : "") + '"';
+        }
+        res.setHeader("ETag", etag);
+        if (etag.equals(req.getHeader("If-None-Match"))) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return report of the latest profiled apply, if profiling is enabled
+     */
+    @CheckForNull
+    @Restricted(NoExternalUse.class)
+    public ApplyProfiler.Report getLatestProfile() {
+        return ApplyProfiler.getLatest();
+    }
+
+    /**
+     * Download the latest apply profile as JSON
+     */
+    @Restricted(NoExternalUse.class)
+    public void doProfile(StaplerRequest req, StaplerResponse res) throws Exception {
+
+        if (!Jenkins.getInstance().hasPermission(Jenkins.ADMINISTER)) {
+            res.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        final ApplyProfiler.Report profile = ApplyProfiler.getLatest();
+        if (profile == null) {
+            res.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        res.setContentType("application/json; charset=utf-8");
+        res.addHeader("Content-Disposition", "attachment; filename=casc-profile.json");
+        res.getWriter().write(profile.toJSON().toString(2));
     }
 
     /**
@@ -442,8 +600,26 @@ public class ConfigurationAsCode extends ManagementLink {
             return;
         }
 
+        final ExportPath path;
+        final ExportFormat format;
+        try {
+            path = exportPath(req);
+            format = ExportFormat.of(req.getParameter("format"));
+        } catch (ConfiguratorException | IllegalArgumentException e) {
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (notModified(req, res, path, format)) {
+            return;
+        }
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-        export(out);
+        try {
+            export(out, path, format);
+        } catch (ConfiguratorException e) {
+            if (path == null) throw e;
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
 
         req.setAttribute("export", out.toString(StandardCharsets.UTF_8.name()));
         req.getView(this, "viewExport.jelly").forward(req, res);
@@ -461,35 +637,132 @@ public class ConfigurationAsCode extends ManagementLink {
 
     @Restricted(NoExternalUse.class)
     public void export(OutputStream out) throws Exception {
+        export(out, null, ExportFormat.YAML);
+    }
+
+    /**
+     * Export a section of the configuration, or the whole configuration if <code>path</code> is <code>null</code>.
+     */
+    @Restricted(NoExternalUse.class)
+    public void export(OutputStream out, @CheckForNull ExportPath path, @NonNull ExportFormat format) throws Exception {
+        export(out, path, format, ExportCache.get());
+    }
+
+    /**
+     * Export the whole configuration as YAML, reusing descriptions from <code>cache</code>.
+     */
+    @Restricted(NoExternalUse.class)
+    public void export(OutputStream out, @NonNull ExportCache cache) throws Exception {
+        export(out, null, ExportFormat.YAML, cache);
+    }
+
+    /**
+     * Export the whole configuration as YAML for a backup, only describing and serializing again the root elements
+     * which may have changed since the previous backup, see {@link ExportCache#forBackup()}.
+     *
+     * @return the export, to be written if it changed
+     */
+    @Restricted(NoExternalUse.class)
+    @NonNull
+    public ExportCache.Splice exportBackup() throws Exception {
+        final long start = System.nanoTime();
+        final ExportCache cache = ExportCache.forBackup();
+        final ConfigurationContext context = new ConfigurationContext(registry);
+        context.setExportCache(cache);
+        final ExportCache.Splice splice = new ExportCache.Splice();
+        final long[] bytes = new long[1];
+        try (CascEvents.Span export = CascEvents.begin(CascEvents.Type.EXPORT, null)) {
+            ParallelExport.forEachOrdered(RootElementConfigurator.all(),
+                    root -> cache.serialize(root, () -> serialize(root.getName(), cache.describe(root, context)), splice),
+                    (root, yaml) -> {
+                        splice.add(yaml);
+                        bytes[0] += yaml.length;
+                    });
+        } finally {
+            CascMetrics.get().recordExport(System.nanoTime() - start, bytes[0]);
+        }
+        return splice;
+    }
 
-        final List<NodeTuple> tuples = new ArrayList<>();
+    /**
+     * @return <code>config</code> as a single entry YAML document, empty if it's pruned from export
+     */
+    private static byte[] serialize(String name, @CheckForNull CNode config) throws Exception {
+        if (ExportWriter.isEmpty(config)) {
+            return new byte[0];
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.TO_YAML, name);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            final ExportWriter output = new ExportWriter(writer);
+            output.start();
+            output.write(name, config);
+            output.end();
+        }
+        return out.toByteArray();
+    }
 
+    private void export(OutputStream out, @CheckForNull ExportPath path, @NonNull ExportFormat format,
+                        @NonNull ExportCache cache) throws Exception {
+        final long start = System.nanoTime();
+        final CountingOutputStream counting = new CountingOutputStream(out);
         final ConfigurationContext context = new ConfigurationContext(registry);
-        for (RootElementConfigurator root : RootElementConfigurator.all()) {
-            final CNode config = root.describe(root.getTargetComponent(context), context);
-            final Node valueNode = toYaml(config);
-            if (valueNode == null) continue;
-            tuples.add(new NodeTuple(
-                    new ScalarNode(Tag.STR, root.getName(), null, null, PLAIN),
-                    valueNode));
-        }
-
-        MappingNode root = new MappingNode(Tag.MAP, tuples, BLOCK);
-        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
-            serializeYamlNode(root, writer);
-        } catch (IOException e) {
-            throw new YAMLException(e);
+        context.setExportCache(cache);
+        try {
+            if (path != null) {
+                writeExport(counting, context, path, format);
+            } else {
+                writeExport(counting, context, format);
+            }
+        } finally {
+            CascMetrics.get().recordExport(System.nanoTime() - start, counting.getByteCount());
+        }
+    }
+
+    /**
+     * Write root elements one at a time as they're described, so the whole configuration is never held in memory.
+     * Root elements may be described concurrently, see {@link ParallelExport}.
+     */
+    private void writeExport(OutputStream out, ConfigurationContext context, ExportFormat format) throws Exception {
+        try (CascEvents.Span export = CascEvents.begin(CascEvents.Type.EXPORT, null);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            final ConfigurationWriter output = format.open(writer);
+            try {
+                output.start();
+                ParallelExport.forEachOrdered(RootElementConfigurator.all(),
+                        root -> context.getExportCache().describe(root, context),
+                        (root, config) -> {
+                            try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.TO_YAML, root.getName())) {
+                                output.write(root.getName(), config);
+                            }
+                        });
+                output.end();
+            } catch (IOException e) {
+                throw new YAMLException(e);
+            }
+        }
+    }
+
+    private void writeExport(OutputStream out, ConfigurationContext context, ExportPath path, ExportFormat format) throws Exception {
+        // describe before writing anything, so an invalid path doesn't leave a truncated document
+        final CNode config = path.describe(context);
+        try (CascEvents.Span export = CascEvents.begin(CascEvents.Type.EXPORT, path.toString());
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            final ConfigurationWriter output = format.open(writer);
+            try {
+                output.start();
+                output.write(path.getRoot(), config);
+                output.end();
+            } catch (IOException e) {
+                throw new YAMLException(e);
+            }
         }
     }
 
     @VisibleForTesting
     @Restricted(NoExternalUse.class)
     public static void serializeYamlNode(Node root, Writer writer) throws IOException {
-        DumperOptions options = new DumperOptions();
-        options.setDefaultFlowStyle(BLOCK);
-        options.setDefaultScalarStyle(PLAIN);
-        options.setSplitLines(true);
-        options.setPrettyFlow(true);
+        DumperOptions options = ExportWriter.options();
         Serializer serializer = new Serializer(new Emitter(writer, options), new Resolver(),
                 options, null);
         serializer.open();
@@ -539,31 +812,7 @@ public class ConfigurationAsCode extends ManagementLink {
                 final String value = scalar.getValue();
                 if (value == null || value.length() == 0) return null;
 
-                final DumperOptions.ScalarStyle style;
-                if (scalar.getFormat().equals(Format.MULTILINESTRING) && !scalar.isRaw()) {
-                    style = LITERAL;
-                } else if (scalar.isRaw()) {
-                    style = PLAIN;
-                } else {
-                    style = DOUBLE_QUOTED;
-                }
-
-                return new ScalarNode(getTag(scalar.getFormat()), value, null, null, style);
-        }
-    }
-
-    private Tag getTag(Scalar.Format format) {
-        switch (format) {
-            case NUMBER:
-                return Tag.INT;
-            case FLOATING:
-                return Tag.FLOAT;
-            case BOOLEAN:
-                return Tag.BOOL;
-            case STRING:
-            case MULTILINESTRING:
-            default:
-                return Tag.STR;
+                return new ScalarNode(ExportWriter.tag(scalar.getFormat()), value, null, null, ExportWriter.style(scalar));
         }
     }
 
@@ -608,8 +857,23 @@ public class ConfigurationAsCode extends ManagementLink {
     }
 
     private void configureWith(List<YamlSource> sources) throws ConfiguratorException {
+        synchronized (APPLY_LOCK) {
+            loadAndApply(sources);
+        }
+    }
+
+    private void loadAndApply(List<YamlSource> sources) throws ConfiguratorException {
         lastTimeLoaded = System.currentTimeMillis();
-        configureWith( YamlUtils.loadFrom(sources, MergeStrategyFactory.getMergeStrategy()) );
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            final Mapping model = ModelSnapshot.loadFrom(sources, MergeStrategyFactory.getMergeStrategy());
+            CascMetrics.get().recordModel(model);
+            configureWith(model, true);
+            success = true;
+        } finally {
+            CascMetrics.get().recordReload(System.nanoTime() - start, success);
+        }
         closeSources(sources);
     }
 
@@ -653,21 +917,13 @@ public class ConfigurationAsCode extends ManagementLink {
             return Collections.singletonList(root);
         }
 
-        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher(YAML_FILES_PATTERN);
-        try (Stream<Path> stream = Files.find(Paths.get(path), Integer.MAX_VALUE,
-                (next, attrs) -> !attrs.isDirectory() && !isHidden(next) && matcher.matches(next))) {
-            return stream.sorted().collect(toList());
+        try {
+            return CONFIG_FILES.list(root);
         } catch (IOException e) {
             throw new IllegalStateException("failed config scan for " + path, e);
         }
     }
 
-    private static boolean isHidden(Path path) {
-        return IntStream.range(0, path.getNameCount())
-            .mapToObj(path::getName)
-            .anyMatch(subPath -> subPath.toString().startsWith("."));
-    }
-
     @FunctionalInterface
     private interface ConfiguratorOperation {
 
@@ -693,7 +949,8 @@ public class ConfigurationAsCode extends ManagementLink {
                 if (! entry.getKey().equalsIgnoreCase(configurator.getName())) {
                     continue;
                 }
-                try {
+                try (ApplyProfiler.Frame frame = ApplyProfiler.enter(configurator.getName());
+                     CascEvents.Span span = CascEvents.begin(CascEvents.Type.ROOT, configurator.getName())) {
                     function.apply(configurator, entry.getValue());
                     it.remove();
                     break;
@@ -722,21 +979,53 @@ public class ConfigurationAsCode extends ManagementLink {
         }
     }
 
-    private void configureWith(Mapping entries) throws ConfiguratorException {
-        // Initialize secret sources
-        SecretSource.all().forEach(SecretSource::init);
+    private void configureWith(Mapping entries, boolean initSecretSources) throws ConfiguratorException {
+        final ApplyProfiler.Report profile = ApplyProfiler.start();
+        try {
+            applyWith(entries, initSecretSources);
+        } finally {
+            registry.releaseSeeded();
+            ApplyProfiler.finish(profile);
+        }
+    }
+
+    private void applyWith(Mapping entries, boolean initSecretSources) throws ConfiguratorException {
+        // Initialize secret sources, unless done while preparing configuration
+        if (initSecretSources) {
+            SecretSource.all().forEach(SecretSource::init);
+        }
+
+        final ApplyPlan plan = ApplyPlan.get();
+        final String planKey = plan != null ? ApplyPlan.key(entries) : null;
 
         // Check input before actually applying changes,
         // so we don't let master in a weird state after some ConfiguratorException has been thrown
         final Mapping clone = entries.clone();
-        checkWith(clone);
+        try (ApplyProfiler.Frame frame = ApplyProfiler.enter(ApplyProfiler.CHECK)) {
+            checkWith(clone);
+        }
 
         final ObsoleteConfigurationMonitor monitor = ObsoleteConfigurationMonitor.get();
         monitor.reset();
         ConfigurationContext context = new ConfigurationContext(registry);
         context.addListener(monitor::record);
-        try (ACLContext acl = ACL.as(ACL.SYSTEM)) {
-            invokeWith(entries, (configurator, config) -> configurator.configure(config, context));
+        if (plan != null) {
+            context.recordLookups();
+        }
+        try (ACLContext acl = ACL.as(ACL.SYSTEM); SaveSession session = SaveSession.open()) {
+            context.setSaveSession(session);
+            try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.CONFIGURE, String.join(", ", entries.keySet()))) {
+                invokeWith(entries, (configurator, config) -> configurator.configure(config, context));
+                session.commit();
+            } finally {
+                lastSaveSession = session;
+                ExportCache.clear();
+            }
+        }
+        CascMetrics.get().recordXmlSaves(lastSaveSession.getWrites());
+        LOGGER.log(Level.FINE, "Configuration applied, {0} XML file(s) written", lastSaveSession.getWrites());
+        if (plan != null) {
+            plan.record(planKey, context.getLookups());
         }
     }
 
@@ -744,7 +1033,9 @@ public class ConfigurationAsCode extends ManagementLink {
         Map<Source, String> issues = new HashMap<>();
         ConfigurationContext context = new ConfigurationContext(registry);
         context.addListener( (node,message) -> issues.put(node.getSource(), message) );
-        invokeWith(entries, (configurator, config) -> configurator.check(config, context));
+        try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.CHECK, String.join(", ", entries.keySet()))) {
+            invokeWith(entries, (configurator, config) -> configurator.check(config, context));
+        }
         return issues;
     }
 
@@ -2,11 +2,18 @@ package io.jenkins.plugins.casc;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
 import io.jenkins.plugins.casc.model.CNode;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.Stapler;
 
 /**
@@ -27,12 +34,18 @@ public class ConfigurationContext implements ConfiguratorRegistry {
      */
     private Version version = Version.ONE;
 
-    private transient List<Listener> listeners = new ArrayList<>();
+    private transient final List<Listener> listeners = new ArrayList<>();
 
     private transient final ConfiguratorRegistry registry;
 
     private transient String mode;
 
+    private transient SaveSession saveSession;
+
+    private transient ExportCache exportCache;
+
+    private transient Map<Class, Configurator> lookups;
+
     public ConfigurationContext(ConfiguratorRegistry registry) {
         this.registry = registry;
     }
@@ -42,8 +55,11 @@ public class ConfigurationContext implements ConfiguratorRegistry {
     }
 
     public void warning(@NonNull CNode node, @NonNull String message) {
-        for (Listener listener : listeners) {
-            listener.warning(node, message);
+        // may be called concurrently, see ParallelConstruction
+        synchronized (listeners) {
+            for (Listener listener : listeners) {
+                listener.warning(node, message);
+            }
         }
     }
 
@@ -77,13 +93,52 @@ public class ConfigurationContext implements ConfiguratorRegistry {
     @Override
     @NonNull
     public <T> Configurator<T> lookupOrFail(Type type) throws ConfiguratorException {
-        return registry.lookupOrFail(type);
+        return recorded(type, registry.lookupOrFail(type));
     }
 
     @Override
     @CheckForNull
     public <T> Configurator<T> lookup(Type type) {
-        return registry.lookup(type);
+        return recorded(type, registry.lookup(type));
+    }
+
+    private <T> Configurator<T> recorded(Type type, Configurator<T> configurator) {
+        if (lookups != null && configurator != null && type instanceof Class) {
+            lookups.put((Class) type, configurator);
+        }
+        return configurator;
+    }
+
+    /**
+     * Attributes of <code>configurator</code>, as described by the {@link ConfiguratorWarmup warm-up} preceding this
+     * apply if any, or described now.
+     */
+    @Restricted(NoExternalUse.class)
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public <T> Set<Attribute<T, ?>> describe(@NonNull Configurator<T> configurator) {
+        if (registry instanceof DefaultConfiguratorRegistry) {
+            final Set seeded = ((DefaultConfiguratorRegistry) registry).getSeededAttributes(configurator);
+            if (seeded != null) return seeded;
+        }
+        return configurator.describe();
+    }
+
+    /**
+     * Record configurators looked up for plain classes through this context from now on, see {@link #getLookups()}.
+     */
+    @Restricted(NoExternalUse.class)
+    public void recordLookups() {
+        lookups = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return configurators looked up through this context since {@link #recordLookups()}, by class
+     */
+    @Restricted(NoExternalUse.class)
+    @NonNull
+    public Map<Class, Configurator> getLookups() {
+        return lookups != null ? new HashMap<>(lookups) : Collections.emptyMap();
     }
 
     public void setVersion(Version version) {
@@ -109,6 +164,31 @@ public class ConfigurationContext implements ConfiguratorRegistry {
         this.mode = mode;
     }
 
+    /**
+     * Get the {@link SaveSession} components are saved into at the end of the apply, if any. When none, each
+     * configured component is saved as soon as it has been configured.
+     */
+    @CheckForNull
+    public SaveSession getSaveSession() {
+        return saveSession;
+    }
+
+    public void setSaveSession(@CheckForNull SaveSession saveSession) {
+        this.saveSession = saveSession;
+    }
+
+    /**
+     * Get the {@link ExportCache} descriptions are looked up in when exporting, {@link ExportCache#get()} by default.
+     */
+    @NonNull
+    public ExportCache getExportCache() {
+        return exportCache != null ? exportCache : ExportCache.get();
+    }
+
+    public void setExportCache(@CheckForNull ExportCache exportCache) {
+        this.exportCache = exportCache;
+    }
+
     // Once we introduce some breaking change on the model inference mechanism, we will introduce `TWO` and so on
     // And this new mechanism will only get enabled when configuration file uses this version or later
     enum Version { ONE("1");
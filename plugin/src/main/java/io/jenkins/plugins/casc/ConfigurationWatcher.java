@@ -0,0 +1,236 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Watches local configuration paths and requests a reload when their content changes.
+ * <p>
+ * Disabled by default, enabled by setting the <code>CASC_WATCH_CONFIG</code> environment variable or the
+ * <code>casc.watch.config</code> system property to <code>true</code>. A single {@link WatchService} and thread
+ * watch all configuration directories and their nested directories. Events are debounced, so a burst of changes
+ * (like a Kubernetes ConfigMap symlink swap) results in a single check, and a reload is only requested through the
+ * {@link ReloadQueue} when the content hash of configuration files has changed.
+ */
+@Restricted(NoExternalUse.class)
+public final class ConfigurationWatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigurationWatcher.class.getName());
+
+    public static final String CASC_WATCH_CONFIG_PROPERTY = "casc.watch.config";
+    public static final String CASC_WATCH_CONFIG_ENV = "CASC_WATCH_CONFIG";
+
+    /** Quiet period after the last file system event before configuration is checked for changes. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static long DEBOUNCE_MILLIS = Long.getLong(ConfigurationWatcher.class.getName() + ".debounceMillis", 2000);
+
+    private static ConfigurationWatcher instance;
+
+    private final List<String> paths;
+    private final Lister lister;
+    private final Runnable onChange;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+    private final Thread thread;
+    private String hash;
+
+    ConfigurationWatcher(@NonNull List<String> paths, @NonNull Lister lister, long debounceMillis,
+                         @NonNull Runnable onChange) throws IOException {
+        this.paths = paths;
+        this.lister = lister;
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        register();
+        this.hash = hash();
+        this.thread = new Thread(this::watch, "CasC configuration watcher");
+        this.thread.setDaemon(true);
+    }
+
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static synchronized void start() throws IOException {
+        final String enabled = System.getProperty(CASC_WATCH_CONFIG_PROPERTY, System.getenv(CASC_WATCH_CONFIG_ENV));
+        if (!Boolean.parseBoolean(enabled) || instance != null) {
+            return;
+        }
+        final List<String> paths = new ArrayList<>();
+        for (String path : ConfigurationAsCode.get().getStandardConfig()) {
+            if (!ConfigurationAsCode.isSupportedURI(path)) {
+                paths.add(path);
+            }
+        }
+        if (paths.isEmpty()) {
+            LOGGER.log(Level.INFO, "No local configuration path to watch");
+            return;
+        }
+        instance = new ConfigurationWatcher(paths, path -> ConfigurationAsCode.get().configs(path), DEBOUNCE_MILLIS,
+                () -> ReloadQueue.get().submit("watcher"));
+        instance.startWatching();
+        LOGGER.log(Level.INFO, "Watching {0} director(ies) for configuration changes", instance.keys.size());
+    }
+
+    @Terminator
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    void startWatching() {
+        thread.start();
+    }
+
+    void close() {
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to close watch service", e);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                drain(watchService.take());
+
+                // debounce, but don't starve on a never ending stream of events
+                final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis * 10);
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(next);
+                    if (System.nanoTime() > deadline) break;
+                }
+
+                // new directories may have been created
+                register();
+                final String current = hash();
+                if (current != null && !current.equals(hash)) {
+                    LOGGER.log(Level.INFO, "Configuration changed, requesting reload");
+                    hash = current;
+                    onChange.run();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOGGER.log(Level.FINE, "Configuration watcher stopped");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Configuration watcher failed", e);
+        }
+    }
+
+    private void drain(WatchKey key) {
+        key.pollEvents();
+        if (!key.reset()) {
+            keys.values().remove(key);
+        }
+    }
+
+    private void register() {
+        for (String path : paths) {
+            final Path root = Paths.get(path);
+            try {
+                if (Files.isDirectory(root)) {
+                    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                            if (!dir.equals(root) && dir.getFileName().toString().startsWith(".")) {
+                                return FileVisitResult.SKIP_SUBTREE;
+                            }
+                            register(dir);
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+                } else if (root.toAbsolutePath().getParent() != null) {
+                    register(root.toAbsolutePath().getParent());
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to watch " + path, e);
+            }
+        }
+    }
+
+    private void register(Path dir) throws IOException {
+        if (!keys.containsKey(dir)) {
+            keys.put(dir, dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+    }
+
+    /**
+     * @return hash of configuration files paths and content, or <code>null</code> if it can't be computed
+     */
+    @CheckForNull
+    String hash() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] buffer = new byte[8192];
+            for (String path : paths) {
+                if (!Files.exists(Paths.get(path))) continue;
+                for (Path file : lister.list(path)) {
+                    digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+                    try (InputStream in = Files.newInputStream(file)) {
+                        int n;
+                        while ((n = in.read(buffer)) > 0) {
+                            digest.update(buffer, 0, n);
+                        }
+                    }
+                }
+            }
+            return Util.toHexString(digest.digest());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to hash configuration files in " + StringUtils.join(paths, ", "), e);
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int getWatchedDirectories() {
+        return keys.size();
+    }
+
+    /**
+     * Lists configuration files for a configured path.
+     */
+    @FunctionalInterface
+    interface Lister {
+        List<Path> list(String path) throws IOException;
+    }
+}
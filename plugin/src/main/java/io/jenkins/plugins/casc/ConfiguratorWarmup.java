@@ -0,0 +1,290 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
+import io.jenkins.plugins.casc.impl.configurators.HeteroDescribableConfigurator;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Scalar;
+import io.jenkins.plugins.casc.model.Sequence;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Resolves the configurators a configuration model will need, before it is applied.
+ * <p>
+ * Starting from each root element, the model is walked as {@link BaseConfigurator} would apply it, looking up the
+ * {@link Configurator} of each attribute type and {@link Configurator#describe() describing} its attributes, which
+ * includes data bound constructor discovery. Subtrees are walked concurrently, so class loading and initialization
+ * mostly happen off the critical path. Nothing is instantiated nor configured.
+ * <p>
+ * Once the walk completes, resolved configurators and their attributes are seeded into the
+ * {@link DefaultConfiguratorRegistry}, so the apply which follows looks them up and iterates over their attributes
+ * without resolving nor describing them again. They're released when that apply is over.
+ * <p>
+ * Warm-up runs while configuration is prepared at startup, see {@link StartupPreparation}, with
+ * <code>io.jenkins.plugins.casc.ConfiguratorWarmup.parallelism</code> threads (number of processors by default, set to
+ * 0 to disable).
+ */
+@Restricted(NoExternalUse.class)
+public final class ConfiguratorWarmup {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfiguratorWarmup.class.getName());
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int PARALLELISM = Integer.getInteger(ConfiguratorWarmup.class.getName() + ".parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    private static volatile Report latest;
+
+    private final ConfiguratorRegistry registry;
+    /** attributes by name of each configurator walked, so a configurator is described once per warm-up */
+    private final Map<Configurator, Map<String, Attribute>> attributes = new ConcurrentHashMap<>();
+    private final Map<Configurator, Set<Attribute>> described = new ConcurrentHashMap<>();
+    private final Map<Class, Configurator> resolved = new ConcurrentHashMap<>();
+    private final Set<String> unresolved = ConcurrentHashMap.newKeySet();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder covered = new LongAdder();
+
+    ConfiguratorWarmup(@NonNull ConfiguratorRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Start warming up configurators for <code>model</code> in the background, using {@link #PARALLELISM} threads.
+     * The model must not be modified until warm-up completes.
+     *
+     * @return pending warm-up report, or <code>null</code> if disabled
+     */
+    @CheckForNull
+    public static Future<Report> start(@NonNull ConfiguratorRegistry registry, @NonNull Mapping model) {
+        if (PARALLELISM <= 0) return null;
+        return new ConfiguratorWarmup(registry).submit(model, PARALLELISM);
+    }
+
+    /**
+     * @return report of the latest warm-up, if any
+     */
+    @CheckForNull
+    public static Report getLatest() {
+        return latest;
+    }
+
+    @NonNull
+    Future<Report> submit(@NonNull Mapping model, int parallelism) {
+        final long start = System.nanoTime();
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism, p -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("CasC configurator warm-up " + thread.getPoolIndex());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+        try {
+            return pool.submit(new RecursiveTask<Report>() {
+                @Override
+                protected Report compute() {
+                    final List<Walk> roots = new ArrayList<>();
+                    for (Map.Entry<String, CNode> entry : model.entrySet()) {
+                        nodes.increment();
+                        final RootElementConfigurator root = registry.lookupRootElement(entry.getKey());
+                        if (root == null) {
+                            unresolved.add(entry.getKey());
+                            continue;
+                        }
+                        covered.increment();
+                        roots.add(new Walk(root, entry.getValue()));
+                    }
+                    invokeAll(roots);
+                    seed();
+                    final Report report = new Report(System.nanoTime() - start, resolved.size(), nodes.sum(),
+                            covered.sum(), new ArrayList<>(unresolved));
+                    latest = report;
+                    LOGGER.log(Level.FINE, "Configurators warmed up in {0}ms: {1} types resolved, {2}/{3} nodes covered, unresolved {4}",
+                            new Object[]{report.getMillis(), report.getTypes(), report.getCoveredNodes(),
+                                    report.getNodes(), report.getUnresolved()});
+                    return report;
+                }
+            });
+        } finally {
+            // already submitted task still runs to completion
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Hand resolved configurators and described attributes over to the apply.
+     */
+    private void seed() {
+        if (!(registry instanceof DefaultConfiguratorRegistry)) return;
+        final DefaultConfiguratorRegistry seeded = (DefaultConfiguratorRegistry) registry;
+        resolved.forEach(seeded::seed);
+        described.forEach(seeded::seedAttributes);
+    }
+
+    private Map<String, Attribute> attributes(Configurator configurator) {
+        return attributes.computeIfAbsent(configurator, c -> {
+            final Set<Attribute> set = c.describe();
+            described.put(c, set);
+            final Map<String, Attribute> byName = new HashMap<>();
+            for (Attribute attribute : set) {
+                byName.put(attribute.getName(), attribute);
+                for (Object alias : attribute.getAliases()) {
+                    byName.put((String) alias, attribute);
+                }
+            }
+            return byName;
+        });
+    }
+
+    @CheckForNull
+    private Configurator lookup(Class type) {
+        final Configurator configurator = registry.lookup(type);
+        if (configurator == null) {
+            unresolved.add(type.getName());
+        } else {
+            resolved.put(type, configurator);
+        }
+        return configurator;
+    }
+
+    /**
+     * Walks a configuration node with the configurator that would apply it.
+     */
+    private final class Walk extends RecursiveAction {
+
+        private final Configurator configurator;
+        private final CNode node;
+
+        Walk(Configurator configurator, CNode node) {
+            this.configurator = configurator;
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                invokeAll(children());
+            } catch (RuntimeException | LinkageError e) {
+                // warm-up is best effort, the actual apply will report the problem
+                LOGGER.log(Level.FINER, "Failed to warm up " + configurator.getTarget(), e);
+            }
+        }
+
+        private List<Walk> children() {
+            final List<Walk> children = new ArrayList<>();
+            if (configurator instanceof HeteroDescribableConfigurator) {
+                final String symbol;
+                final CNode sub;
+                if (node instanceof Scalar) {
+                    symbol = ((Scalar) node).getValue();
+                    sub = null;
+                } else if (node instanceof Mapping && ((Mapping) node).size() == 1) {
+                    final Map.Entry<String, CNode> entry = ((Mapping) node).entrySet().iterator().next();
+                    symbol = entry.getKey();
+                    sub = entry.getValue();
+                } else {
+                    return children;
+                }
+                final Class implementation = (Class) ((HeteroDescribableConfigurator<?>) configurator).getImplementors().get(symbol);
+                final Configurator resolved = implementation != null ? lookup(implementation) : null;
+                if (resolved == null) {
+                    unresolved.add(configurator.getTarget().getName() + ":" + symbol);
+                } else if (sub != null) {
+                    children.add(new Walk(resolved, sub));
+                } else {
+                    attributes(resolved);
+                }
+                return children;
+            }
+
+            if (!(node instanceof Mapping)) return children;
+            final Map<String, Attribute> byName = attributes(configurator);
+            for (Map.Entry<String, CNode> entry : ((Mapping) node).entrySet()) {
+                nodes.increment();
+                final Attribute attribute = byName.get(entry.getKey());
+                if (attribute == null) continue;
+                final Configurator type = lookup(attribute.getType());
+                if (type == null) continue;
+                covered.increment();
+                if (attribute.isMultiple() && entry.getValue() instanceof Sequence) {
+                    for (CNode element : (Sequence) entry.getValue()) {
+                        children.add(new Walk(type, element));
+                    }
+                } else {
+                    children.add(new Walk(type, entry.getValue()));
+                }
+            }
+            return children;
+        }
+    }
+
+    /**
+     * Outcome of a warm-up.
+     */
+    public static final class Report {
+
+        private final long nanos;
+        private final int types;
+        private final long nodes;
+        private final long coveredNodes;
+        private final List<String> unresolved;
+
+        Report(long nanos, int types, long nodes, long coveredNodes, List<String> unresolved) {
+            this.nanos = nanos;
+            this.types = types;
+            this.nodes = nodes;
+            this.coveredNodes = coveredNodes;
+            this.unresolved = unresolved;
+        }
+
+        public long getMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        /**
+         * @return number of distinct types a configurator was resolved for
+         */
+        public int getTypes() {
+            return types;
+        }
+
+        /**
+         * @return number of mapping entries walked
+         */
+        public long getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return number of mapping entries matched with an attribute whose configurator was resolved
+         */
+        public long getCoveredNodes() {
+            return coveredNodes;
+        }
+
+        /**
+         * @return root elements, types and symbols no configurator could be resolved for
+         */
+        public List<String> getUnresolved() {
+            return unresolved;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Descriptor;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import io.jenkins.plugins.casc.impl.configurators.GlobalConfigurationCategoryConfigurator;
+import io.jenkins.plugins.casc.model.CNode;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the description of each root element and global configuration descriptor from an export to the next, so
+ * only subtrees which changed since are described again.
+ * <p>
+ * The cache is disabled by default, as it relies on changes to be saved to notice them. It is enabled by setting the
+ * <code>io.jenkins.plugins.casc.ExportCache.enabled</code> system property to <code>true</code>. Entries are
+ * invalidated when configuration is applied and when a {@link Saveable} is saved: a {@link Descriptor} only
+ * invalidates its own entry and the global configuration categories, jobs and builds are ignored, and anything else
+ * invalidates the whole cache.
+ * <p>
+ * Each invalidation bumps a generation number, exposed as an {@link #getETag() ETag} for the export endpoints.
+ * Cached nodes are shared between exports and must not be modified.
+ * <p>
+ * Configuration backups use {@link #forBackup() their own cache}, enabled unless the
+ * <code>io.jenkins.plugins.casc.ExportCache.backupDisabled</code> system property is <code>true</code>: they are
+ * triggered by a save, which has already invalidated whatever it changed, so only that descriptor is described again.
+ * This cache keeps descriptor descriptions and, instead of root element descriptions, the YAML each root element was
+ * {@link #serialize(RootElementConfigurator, Serialization, Splice) serialized to}: a backup only serializes again the
+ * root elements invalidated since the previous one, splices the others as they were, and tells which ones changed.
+ */
+@Restricted(NoExternalUse.class)
+public final class ExportCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ExportCache.class.getName());
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean ENABLED = Boolean.getBoolean(ExportCache.class.getName() + ".enabled");
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean BACKUP_DISABLED = Boolean.getBoolean(ExportCache.class.getName() + ".backupDisabled");
+
+    private static final ExportCache INSTANCE = new ExportCache(false);
+    private static final ExportCache BACKUP = new ExportCache(true);
+
+    private final Map<String, Entry> roots = new ConcurrentHashMap<>();
+    private final Map<Descriptor, Entry> descriptors = new ConcurrentHashMap<>();
+    /** YAML of each root element, kept by the backup cache when stale too, to tell whether it changed */
+    private final Map<String, Serialized> serialized = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long epoch = System.currentTimeMillis();
+    private volatile Jenkins owner;
+    /** whether this is the backup cache, which only keeps descriptors */
+    private final boolean backup;
+
+    ExportCache(boolean backup) {
+        this.backup = backup;
+    }
+
+    @NonNull
+    public static ExportCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return cache used to export configuration backups, enabled regardless of {@link #ENABLED}, keeping descriptor
+     * descriptions and the YAML of root elements
+     */
+    @NonNull
+    public static ExportCache forBackup() {
+        return BACKUP;
+    }
+
+    /**
+     * Forget everything in every cache, as when configuration has been applied.
+     */
+    public static void clear() {
+        INSTANCE.invalidateAll();
+        BACKUP.invalidateAll();
+    }
+
+    /**
+     * Describe a root element, or reuse its description from a previous export.
+     */
+    @CheckForNull
+    public CNode describe(@NonNull RootElementConfigurator root, @NonNull ConfigurationContext context) throws Exception {
+        final Description description = () -> root.describe(root.getTargetComponent(context), context);
+        if (backup) {
+            return description.describe();
+        }
+        return lookup(roots, root.getName(), root instanceof GlobalConfigurationCategoryConfigurator, description);
+    }
+
+    /**
+     * Describe a global configuration descriptor, or reuse its description from a previous export.
+     */
+    @CheckForNull
+    public CNode describe(@NonNull Descriptor descriptor, @NonNull Description description) throws Exception {
+        return lookup(descriptors, descriptor, false, description);
+    }
+
+    private <K> CNode lookup(Map<K, Entry> cache, K key, boolean category, Description description) throws Exception {
+        if (!isEnabled()) {
+            return description.describe();
+        }
+        checkOwner();
+        final Entry cached = cache.get(key);
+        if (cached != null) {
+            return cached.node;
+        }
+        final long before = generation.get();
+        final CNode node = description.describe();
+        // don't keep a description which may have been computed before some concurrent change, the lock prevents an
+        // invalidation from happening between this check and the put
+        synchronized (this) {
+            if (generation.get() == before) {
+                cache.put(key, new Entry(node, category));
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Serialize a root element as a single entry YAML document, or reuse its YAML from the previous backup if nothing
+     * it depends on has been saved since. Only used by the backup cache.
+     *
+     * @param splice records whether the YAML changed since the previous backup
+     * @return YAML of the root element, empty if it's pruned from export
+     */
+    @NonNull
+    public byte[] serialize(@NonNull RootElementConfigurator root, @NonNull Serialization serialization,
+                            @NonNull Splice splice) throws Exception {
+        final String name = root.getName();
+        Serialized previous = null;
+        if (isEnabled()) {
+            checkOwner();
+            previous = serialized.get(name);
+        }
+        if (previous != null && !previous.stale) {
+            return previous.yaml;
+        }
+        final long before = generation.get();
+        final byte[] yaml = serialization.serialize();
+        if (previous == null) {
+            splice.complete = false;
+        } else if (!Arrays.equals(previous.yaml, yaml)) {
+            splice.changed.put(name, yaml);
+        }
+        if (isEnabled()) {
+            synchronized (this) {
+                final Serialized entry = new Serialized(yaml, root instanceof GlobalConfigurationCategoryConfigurator);
+                // described before some concurrent change, compare with it but serialize again next time
+                entry.stale = generation.get() != before;
+                serialized.put(name, entry);
+            }
+        }
+        return yaml;
+    }
+
+    /**
+     * Forget the YAML of root elements, when it may not match what has been backed up.
+     */
+    public void forgetSerialized() {
+        serialized.clear();
+    }
+
+    /**
+     * Forget everything, as when configuration has been applied.
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        roots.clear();
+        descriptors.clear();
+        serialized.values().forEach(entry -> entry.stale = true);
+    }
+
+    /**
+     * Forget whatever may depend on a {@link Saveable} which has just been saved.
+     */
+    public void invalidate(@NonNull Saveable saveable) {
+        if (saveable instanceof Item || saveable instanceof Run) {
+            return;
+        }
+        if (saveable instanceof Descriptor) {
+            synchronized (this) {
+                generation.incrementAndGet();
+                descriptors.remove(saveable);
+                roots.values().removeIf(entry -> entry.category);
+                serialized.values().forEach(entry -> entry.stale |= entry.category);
+            }
+            return;
+        }
+        LOGGER.log(Level.FINEST, "Export cache invalidated by {0}", saveable);
+        invalidateAll();
+    }
+
+    /**
+     * @return an entity tag which changes whenever the cache is invalidated, or <code>null</code> if disabled
+     */
+    @CheckForNull
+    public String getETag() {
+        if (!isEnabled()) return null;
+        checkOwner();
+        return "\"casc-" + Long.toHexString(epoch) + '-' + generation.get() + '"';
+    }
+
+    private boolean isEnabled() {
+        return backup ? !BACKUP_DISABLED : ENABLED;
+    }
+
+    /** Jenkins restarted within the same JVM, as in tests */
+    private void checkOwner() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (owner != jenkins) {
+            owner = jenkins;
+            invalidateAll();
+            forgetSerialized();
+        }
+    }
+
+    private static final class Entry {
+
+        private final CNode node;
+        private final boolean category;
+
+        Entry(CNode node, boolean category) {
+            this.node = node;
+            this.category = category;
+        }
+    }
+
+    private static final class Serialized {
+
+        private final byte[] yaml;
+        private final boolean category;
+        private volatile boolean stale;
+
+        Serialized(byte[] yaml, boolean category) {
+            this.yaml = yaml;
+            this.category = category;
+        }
+    }
+
+    /**
+     * Serializes a single root element.
+     */
+    @FunctionalInterface
+    public interface Serialization {
+        byte[] serialize() throws Exception;
+    }
+
+    /**
+     * A backup export, spliced from the YAML of each root element.
+     */
+    public static final class Splice {
+
+        private static final byte[] EMPTY = "{}\n".getBytes(StandardCharsets.UTF_8);
+
+        private final List<byte[]> roots = new ArrayList<>();
+        private final Map<String, byte[]> changed = new ConcurrentHashMap<>();
+        private volatile boolean complete = true;
+
+        /**
+         * Append the YAML of the next root element, in export order.
+         */
+        public void add(@NonNull byte[] yaml) {
+            roots.add(yaml);
+        }
+
+        /**
+         * @return <code>false</code> if some root element had no YAML from the previous backup to compare with
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * @return YAML of root elements which changed since the previous backup, by name, empty if now pruned
+         */
+        @NonNull
+        public Map<String, byte[]> getChanged() {
+            return Collections.unmodifiableMap(changed);
+        }
+
+        /**
+         * @return <code>true</code> if the export is the same as the previous backup
+         */
+        public boolean isUnchanged() {
+            return complete && changed.isEmpty();
+        }
+
+        /**
+         * Write the whole export, the same as {@link ConfigurationAsCode#export(OutputStream, ExportCache)} would.
+         */
+        public void writeTo(@NonNull OutputStream out) throws IOException {
+            boolean empty = true;
+            for (byte[] yaml : roots) {
+                out.write(yaml);
+                empty &= yaml.length == 0;
+            }
+            if (empty) {
+                out.write(EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Describes a single component.
+     */
+    @FunctionalInterface
+    public interface Description {
+        CNode describe() throws Exception;
+    }
+
+    /**
+     * Invalidates the export cache when something is saved, before any other listener may export configuration.
+     */
+    @Extension(ordinal = 100)
+    @Restricted(NoExternalUse.class)
+    public static class Invalidator extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            INSTANCE.invalidate(o);
+            BACKUP.invalidate(o);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Descriptor;
+import io.jenkins.plugins.casc.impl.configurators.DescriptorConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.GlobalConfigurationCategoryConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.HeteroDescribableConfigurator;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * A section of the configuration to be exported, addressed by a path such as <code>/jenkins/clouds</code> or
+ * <code>/unclassified/location</code>.
+ * <p>
+ * The first segment names a root element, the following ones attributes (or their aliases), descriptors of a global
+ * configuration category being addressed by their exported name. Only the components along the path are described,
+ * until some attribute holds a {@link hudson.model.Describable} exported under its symbol: this attribute is then
+ * described as a whole and the remaining segments looked up in its description. The last attribute is selected from
+ * the description of the component holding it, so values the full export omits, such as defaults, are omitted too.
+ * <p>
+ * The section is nested in mappings named after the path, so the export can be applied as is.
+ */
+@Restricted(NoExternalUse.class)
+public final class ExportPath {
+
+    private final String path;
+    private final String root;
+    private final List<String> segments;
+
+    private ExportPath(String path, String root, List<String> segments) {
+        this.path = path;
+        this.root = root;
+        this.segments = segments;
+    }
+
+    @NonNull
+    public static ExportPath parse(@NonNull String path) throws ConfiguratorException {
+        final String[] parts = StringUtils.split(path, '/');
+        if (parts.length == 0) {
+            throw new ConfiguratorException("Invalid export path '" + path + "'");
+        }
+        return new ExportPath(path, parts[0],
+                Collections.unmodifiableList(Arrays.asList(parts).subList(1, parts.length)));
+    }
+
+    /**
+     * @return name of the root element this section belongs to
+     */
+    @NonNull
+    public String getRoot() {
+        return root;
+    }
+
+    /**
+     * Describe the section, nested in mappings named after the segments following the root element.
+     * @return description of the root element content, or <code>null</code> if there's nothing to export
+     * @throws ConfiguratorException if the path doesn't match the configuration model
+     */
+    @CheckForNull
+    public CNode describe(@NonNull ConfigurationContext context) throws Exception {
+        final RootElementConfigurator rootElement = context.lookupRootElement(root);
+        if (rootElement == null) {
+            throw new ConfiguratorException("No root element named '" + root + "' for export path '" + path + "'");
+        }
+        if (segments.isEmpty()) {
+            return context.getExportCache().describe(rootElement, context);
+        }
+
+        Configurator configurator = rootElement;
+        Object instance = rootElement.getTargetComponent(context);
+        for (int i = 0; i < segments.size(); i++) {
+            final String segment = segments.get(i);
+            final boolean last = i == segments.size() - 1;
+
+            if (configurator instanceof GlobalConfigurationCategoryConfigurator) {
+                final DescriptorConfigurator c = ((GlobalConfigurationCategoryConfigurator) configurator).lookupDescriptor(segment);
+                if (c == null) {
+                    throw new ConfiguratorException(configurator, "No descriptor named '" + segment + "' for export path '" + path + "'");
+                }
+                final Descriptor descriptor = c.getTargetComponent(context);
+                if (last) {
+                    return nest(context.getExportCache().describe(descriptor, () -> c.describe(descriptor, context)));
+                }
+                configurator = c;
+                instance = descriptor;
+                continue;
+            }
+
+            final Attribute attribute = attribute(configurator, segment);
+            if (last) {
+                final CNode owner = configurator == rootElement
+                        ? context.getExportCache().describe(rootElement, context)
+                        : configurator.describe(instance, context);
+                return nest(owner != null ? lookup(owner, attribute.getName()) : null);
+            }
+            if (attribute.isMultiple()) {
+                throw new ConfiguratorException(configurator, "'" + segment + "' is a list, export path '" + path + "' can't address part of it");
+            }
+            if (context.lookup(attribute.getType()) instanceof HeteroDescribableConfigurator) {
+                return nest(lookup(attribute.describe(instance, context), i + 1));
+            }
+            final Object value = attribute.getValue(instance);
+            if (value == null) {
+                return null;
+            }
+            configurator = context.lookupOrFail(value.getClass());
+            instance = value;
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static Attribute attribute(Configurator configurator, String name) throws ConfiguratorException {
+        for (Object o : configurator.getAttributes()) {
+            final Attribute attribute = (Attribute) o;
+            if (attribute.getName().equals(name) || attribute.getAliases().contains(name)) {
+                return attribute;
+            }
+        }
+        throw new ConfiguratorException(configurator, "No attribute named '" + name + "'");
+    }
+
+    private CNode lookup(CNode owner, String name) throws ConfiguratorException {
+        if (owner.getType() != CNode.Type.MAPPING) {
+            throw new ConfiguratorException("'" + name + "' can't be selected for export path '" + path + "'");
+        }
+        return owner.asMapping().get(name);
+    }
+
+    /**
+     * Look the segments from <code>from</code> up in an already described node.
+     */
+    private CNode lookup(CNode node, int from) throws ConfiguratorException {
+        for (int i = from; i < segments.size() && node != null; i++) {
+            if (node.getType() != CNode.Type.MAPPING) {
+                throw new ConfiguratorException("'" + segments.get(i - 1) + "' has no attribute named '"
+                        + segments.get(i) + "' for export path '" + path + "'");
+            }
+            node = node.asMapping().get(segments.get(i));
+        }
+        return node;
+    }
+
+    private CNode nest(CNode node) {
+        if (node == null) {
+            return null;
+        }
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            final Mapping mapping = new Mapping();
+            mapping.put(segments.get(i), node);
+            node = mapping;
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,200 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Sequence;
+import io.jenkins.plugins.casc.model.Source;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.acegisecurity.Authentication;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import static java.lang.String.format;
+
+/**
+ * Builds the elements of a sequence attribute, possibly in parallel.
+ * <p>
+ * Parallel construction is disabled by default. It is enabled by setting the
+ * <code>io.jenkins.plugins.casc.ParallelConstruction.parallelism</code> system property to the number of worker
+ * threads to use, and only applies to sequences of at least {@link #THRESHOLD} elements whose {@link Configurator}
+ * is considered thread-safe: either the configurator class or its target type is annotated with
+ * {@link ThreadSafeConstruction}, or the target type is listed (comma separated fully qualified class names) in the
+ * <code>io.jenkins.plugins.casc.ParallelConstruction.threadSafeTypes</code> system property.
+ * <p>
+ * Resulting values keep the order of the sequence. When some elements fail, the error reported is the one of the
+ * first failing element in sequence order, with its {@link Source}.
+ */
+@Restricted(NoExternalUse.class)
+public final class ParallelConstruction {
+
+    private static final Logger LOGGER = Logger.getLogger(ParallelConstruction.class.getName());
+
+    private static final String PREFIX = ParallelConstruction.class.getName();
+
+    /** Number of worker threads, parallel construction is disabled unless greater than 1. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int PARALLELISM = Integer.getInteger(PREFIX + ".parallelism", 0);
+
+    /** Minimal size of a sequence to be built in parallel. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int THRESHOLD = Integer.getInteger(PREFIX + ".threshold", 16);
+
+    /** Additional target types considered thread-safe, for components we can't annotate. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static Set<String> THREAD_SAFE_TYPES = new HashSet<>(Arrays.asList(
+            StringUtils.split(System.getProperty(PREFIX + ".threadSafeTypes", ""), ", ")));
+
+    /** Set on worker threads, so nested sequences are built sequentially and can't starve the pool. */
+    private static final ThreadLocal<Boolean> IN_WORKER = ThreadLocal.withInitial(() -> false);
+
+    private static ExecutorService executor;
+    private static int executorSize;
+
+    private ParallelConstruction() {
+    }
+
+    /**
+     * Build the value of each element of a sequence.
+     *
+     * @param configurator configurator for the sequence elements
+     * @param sequence configuration of the elements
+     * @param context current configuration context
+     * @param operation how to build a single element, typically {@link Configurator#configure(CNode, ConfigurationContext)}
+     * @return built values, in sequence order
+     * @throws ConfiguratorException the first failure in sequence order
+     */
+    @NonNull
+    public static List<Object> build(@NonNull Configurator configurator, @NonNull Sequence sequence,
+                                     @NonNull ConfigurationContext context, @NonNull ElementOperation operation)
+            throws ConfiguratorException {
+
+        if (!isParallel(configurator, sequence)) {
+            List<Object> values = new ArrayList<>(sequence.size());
+            for (int i = 0; i < sequence.size(); i++) {
+                try (ApplyProfiler.Frame frame = ApplyProfiler.enterElement(i)) {
+                    values.add(operation.apply(sequence.get(i)));
+                }
+            }
+            return values;
+        }
+
+        LOGGER.log(Level.FINE, "Building {0} elements of type {1} in parallel",
+                new Object[]{sequence.size(), configurator.getTarget()});
+
+        final Authentication auth = Jenkins.getAuthentication();
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final ApplyProfiler.Node profiled = ApplyProfiler.current();
+        final SaveSession session = SaveSession.active();
+        final ExecutorService executor = executor();
+
+        final List<Future<Object>> futures = new ArrayList<>(sequence.size());
+        for (int i = 0; i < sequence.size(); i++) {
+            final int index = i;
+            final CNode o = sequence.get(i);
+            futures.add(executor.submit(() -> {
+                final Thread thread = Thread.currentThread();
+                final ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                IN_WORKER.set(true);
+                final ApplyProfiler.Node previousNode = ApplyProfiler.attach(profiled);
+                final SaveSession previousSession = SaveSession.attach(session);
+                try (ACLContext ignored = ACL.as(auth);
+                     ApplyProfiler.Frame frame = ApplyProfiler.enterElement(index)) {
+                    return operation.apply(o);
+                } finally {
+                    SaveSession.attach(previousSession);
+                    ApplyProfiler.attach(previousNode);
+                    IN_WORKER.set(false);
+                    thread.setContextClassLoader(previous);
+                }
+            }));
+        }
+
+        final List<Object> values = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                values.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                cancel(futures);
+                throw failure(configurator, sequence.get(i), e.getCause());
+            } catch (InterruptedException e) {
+                cancel(futures);
+                Thread.currentThread().interrupt();
+                throw new ConfiguratorException(configurator, "Interrupted while building " + configurator.getTarget(), e);
+            }
+        }
+        return values;
+    }
+
+    private static boolean isParallel(Configurator configurator, Sequence sequence) {
+        if (PARALLELISM <= 1 || sequence.size() < Math.max(THRESHOLD, 2) || IN_WORKER.get()) {
+            return false;
+        }
+        return isThreadSafe(configurator);
+    }
+
+    /**
+     * Check whether a {@link Configurator} has been declared safe to build elements concurrently.
+     */
+    public static boolean isThreadSafe(@NonNull Configurator configurator) {
+        if (configurator.getClass().isAnnotationPresent(ThreadSafeConstruction.class)) {
+            return true;
+        }
+        final Class target = configurator.getTarget();
+        return target != null
+                && (target.isAnnotationPresent(ThreadSafeConstruction.class) || THREAD_SAFE_TYPES.contains(target.getName()));
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null || executorSize != PARALLELISM) {
+            if (executor != null) {
+                executor.shutdown();
+            }
+            executorSize = PARALLELISM;
+            executor = Executors.newFixedThreadPool(executorSize,
+                    new NamingThreadFactory(new DaemonThreadFactory(), "CasC parallel construction"));
+        }
+        return executor;
+    }
+
+    private static void cancel(List<Future<Object>> futures) {
+        for (Future<Object> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    private static ConfiguratorException failure(Configurator configurator, CNode node, Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        final Source source = node.getSource();
+        final String where = source != null ? format("%s:%d", source.file, source.line) : "unknown location";
+        final String message = cause instanceof ConfiguratorException ? cause.getMessage() : String.valueOf(cause);
+        return new ConfiguratorException(configurator,
+                format("Failed to build %s at %s: %s", configurator.getTarget().getName(), where, message), cause);
+    }
+
+    /**
+     * Builds a single element of a sequence.
+     */
+    @FunctionalInterface
+    public interface ElementOperation {
+        Object apply(CNode node) throws ConfiguratorException;
+    }
+}
@@ -0,0 +1,189 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.acegisecurity.Authentication;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Describes the root elements and global descriptors of the live instance, possibly in parallel, on export.
+ * <p>
+ * Parallel export is disabled by default. It is enabled by setting the
+ * <code>io.jenkins.plugins.casc.ParallelExport.parallelism</code> system property to the number of worker threads to
+ * use. Items are described concurrently but always consumed in their original order, so the exported document is the
+ * same as a sequential export. Nested calls, as for the descriptors of a root element described by a worker, run on
+ * the pool of the top-level call, the waiting worker helping with pending items rather than blocking. Changing the
+ * parallelism only applies to the next top-level calls. The pool is shut down when Jenkins terminates.
+ * <p>
+ * Described items are only consumed in order, so a slow item keeps the items following it in memory until it completes.
+ */
+@Restricted(NoExternalUse.class)
+public final class ParallelExport {
+
+    private static final Logger LOGGER = Logger.getLogger(ParallelExport.class.getName());
+
+    /** Number of worker threads, parallel export is disabled unless greater than 1. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int PARALLELISM = Integer.getInteger(ParallelExport.class.getName() + ".parallelism", 0);
+
+    private static ForkJoinPool pool;
+    private static int poolSize;
+
+    private ParallelExport() {
+    }
+
+    /**
+     * Describe each item, then pass the results to <code>consumer</code> in the order of <code>items</code>.
+     *
+     * @param items items to be described
+     * @param operation how to describe a single item
+     * @param consumer receives each item with its description, in order, on the calling thread
+     * @throws Exception the failure of the first item in order which failed to be described, or a consumer failure
+     */
+    public static <T, R> void forEachOrdered(@NonNull List<T> items, @NonNull Operation<T, R> operation,
+                                             @NonNull Consumer<T, R> consumer) throws Exception {
+
+        if (PARALLELISM <= 1 || items.size() < 2) {
+            for (T item : items) {
+                consumer.accept(item, operation.apply(item));
+            }
+            return;
+        }
+
+        LOGGER.log(Level.FINER, "Describing {0} items in parallel", items.size());
+
+        final Authentication auth = Jenkins.getAuthentication();
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final List<Describe<T, R>> tasks = new ArrayList<>(items.size());
+        for (T item : items) {
+            tasks.add(new Describe<>(item, operation, auth, classLoader));
+        }
+        if (Thread.currentThread() instanceof Worker) {
+            // nested call, stay on the pool of the top-level call
+            for (Describe<T, R> task : tasks) {
+                task.fork();
+            }
+        } else {
+            submit(tasks);
+        }
+
+        try {
+            for (Describe<T, R> task : tasks) {
+                task.join();
+                if (task.failure != null) {
+                    throw task.failure;
+                }
+                consumer.accept(task.item, task.value);
+            }
+        } finally {
+            for (Describe<T, R> task : tasks) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Describe each item.
+     *
+     * @return descriptions, in the order of <code>items</code>
+     */
+    @NonNull
+    public static <T, R> List<R> map(@NonNull List<T> items, @NonNull Operation<T, R> operation) throws Exception {
+        final List<R> values = new ArrayList<>(items.size());
+        forEachOrdered(items, operation, (item, value) -> values.add(value));
+        return values;
+    }
+
+    /**
+     * Submit the tasks of a top-level call, all to the same pool. A pool replaced after a parallelism change is shut
+     * down, but still runs the tasks already submitted to it and the ones they fork.
+     */
+    private static synchronized void submit(List<? extends ForkJoinTask<?>> tasks) {
+        if (pool == null || poolSize != PARALLELISM) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            poolSize = PARALLELISM;
+            pool = new ForkJoinPool(poolSize, Worker::new, null, false);
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            pool.execute(task);
+        }
+    }
+
+    @Terminator
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    private static final class Worker extends ForkJoinWorkerThread {
+
+        Worker(ForkJoinPool pool) {
+            super(pool);
+            setName("CasC parallel export " + getPoolIndex());
+            setDaemon(true);
+        }
+    }
+
+    private static final class Describe<T, R> extends RecursiveAction {
+
+        private final T item;
+        private final Operation<T, R> operation;
+        private final Authentication auth;
+        private final ClassLoader classLoader;
+        private R value;
+        private Exception failure;
+
+        Describe(T item, Operation<T, R> operation, Authentication auth, ClassLoader classLoader) {
+            this.item = item;
+            this.operation = operation;
+            this.auth = auth;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected void compute() {
+            final Thread thread = Thread.currentThread();
+            final ClassLoader previous = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            try (ACLContext ignored = ACL.as(auth)) {
+                value = operation.apply(item);
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                thread.setContextClassLoader(previous);
+            }
+        }
+    }
+
+    /**
+     * Describes a single item.
+     */
+    @FunctionalInterface
+    public interface Operation<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    /**
+     * Receives a described item.
+     */
+    @FunctionalInterface
+    public interface Consumer<T, R> {
+        void accept(T item, R value) throws Exception;
+    }
+}
@@ -0,0 +1,225 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Runs configuration reloads one at a time, on a dedicated thread.
+ * <p>
+ * A reload requested while another one is queued joins it, so a burst of requests arriving while a reload is running
+ * results in a single follow-up reload. Each reload gets an id its status can be queried with, while
+ * {@link #reloadAndWait(String)} offers a synchronous reload.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class ReloadQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(ReloadQueue.class.getName());
+
+    /** Response header set to the id of the reload a request has been queued to. */
+    public static final String RELOAD_ID_HEADER = "X-CasC-Reload-Id";
+
+    /** Number of reloads kept for status queries. */
+    static final int HISTORY = 50;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final ThreadPoolExecutor executor;
+
+    /** guarded by this */
+    private final Map<Long, Reload> reloads = new LinkedHashMap<Long, Reload>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Reload> eldest) {
+            return size() > HISTORY;
+        }
+    };
+
+    /** guarded by this */
+    private Reload pending;
+
+    public ReloadQueue() {
+        executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "CasC reload"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ReloadQueue get() {
+        return Jenkins.getInstance().getExtensionList(ReloadQueue.class).get(0);
+    }
+
+    /**
+     * Request a reload, unless one is already queued.
+     * @param trigger what requested the reload, for diagnostics
+     * @return the reload that will apply configuration
+     */
+    @NonNull
+    public synchronized Reload submit(@NonNull String trigger) {
+        if (pending != null) {
+            pending.coalesced.incrementAndGet();
+            LOGGER.log(Level.FINE, "Reload requested by {0} joined queued reload #{1}", new Object[]{trigger, pending.id});
+            return pending;
+        }
+        final Reload reload = new Reload(ids.incrementAndGet(), trigger);
+        pending = reload;
+        reloads.put(reload.id, reload);
+        executor.execute(() -> run(reload));
+        return reload;
+    }
+
+    /**
+     * Request a reload and wait for it to complete.
+     * @throws ConfiguratorException reload failed
+     */
+    @NonNull
+    public Reload reloadAndWait(@NonNull String trigger) throws ConfiguratorException, InterruptedException {
+        final Reload reload = submit(trigger);
+        reload.await();
+        final Throwable failure = reload.failure;
+        if (failure instanceof ConfiguratorException) {
+            throw (ConfiguratorException) failure;
+        } else if (failure != null) {
+            throw new ConfiguratorException("Configuration reload #" + reload.id + " failed", failure);
+        }
+        return reload;
+    }
+
+    private void run(Reload reload) {
+        synchronized (this) {
+            if (pending == reload) {
+                pending = null;
+            }
+        }
+        reload.status = Status.RUNNING;
+        reload.startedAt = System.currentTimeMillis();
+        Throwable failure = null;
+        try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+            ConfigurationAsCode.get().configure();
+        } catch (Exception | Error e) {
+            LOGGER.log(Level.WARNING, "Configuration reload #" + reload.id + " failed", e);
+            failure = e;
+        } finally {
+            reload.finished(failure);
+        }
+    }
+
+    @CheckForNull
+    public synchronized Reload getReload(long id) {
+        return reloads.get(id);
+    }
+
+    /**
+     * @return latest reloads, oldest first
+     */
+    @NonNull
+    public synchronized List<Reload> getReloads() {
+        return new ArrayList<>(reloads.values());
+    }
+
+    public JSONArray toJSON() {
+        final JSONArray json = new JSONArray();
+        for (Reload reload : getReloads()) {
+            json.add(reload.toJSON());
+        }
+        return json;
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    /**
+     * A requested reload, and its outcome once done.
+     */
+    public static final class Reload {
+
+        private final long id;
+        private final String trigger;
+        private final long queuedAt = System.currentTimeMillis();
+        private final AtomicInteger coalesced = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile Status status = Status.QUEUED;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile Throwable failure;
+
+        private Reload(long id, String trigger) {
+            this.id = id;
+            this.trigger = trigger;
+        }
+
+        private void finished(Throwable failure) {
+            this.failure = failure;
+            this.finishedAt = System.currentTimeMillis();
+            this.status = failure == null ? Status.SUCCEEDED : Status.FAILED;
+            done.countDown();
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        /**
+         * Wait for this reload to complete, successfully or not.
+         */
+        public void await() throws InterruptedException {
+            done.await();
+        }
+
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return done.await(timeout, unit);
+        }
+
+        public JSONObject toJSON() {
+            final JSONObject json = new JSONObject();
+            json.put("id", id);
+            json.put("trigger", trigger);
+            json.put("status", status.name().toLowerCase());
+            json.put("queuedAt", queuedAt);
+            json.put("coalesced", coalesced.get());
+            if (startedAt > 0) {
+                json.put("startedAt", startedAt);
+                json.put("queuedMillis", startedAt - queuedAt);
+            }
+            if (finishedAt > 0) {
+                json.put("finishedAt", finishedAt);
+                json.put("durationMillis", finishedAt - startedAt);
+            }
+            final Throwable failure = this.failure;
+            if (failure != null) {
+                json.put("error", String.valueOf(failure.getMessage()));
+            }
+            return json;
+        }
+    }
+}
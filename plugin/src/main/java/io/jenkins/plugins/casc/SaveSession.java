@@ -0,0 +1,238 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.BulkChange;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.acegisecurity.Authentication;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Coalesces {@link Saveable#save()} calls across a whole configuration apply.
+ * <p>
+ * {@link BaseConfigurator} still configures each {@link Saveable} within a {@link BulkChange}, but when a session is
+ * attached to the {@link ConfigurationContext} the change isn't committed: the component is recorded as dirty and
+ * saved once, when the session is {@link #commit() committed}.
+ * <p>
+ * While a session is open, XML writes notified to {@link SaveableListener}s by the applying thread, and by the
+ * threads it {@link #attach(SaveSession) attaches} the session to, are counted, so one can check how many files a
+ * reload actually wrote. Saves made meanwhile by other threads, such as builds, aren't.
+ */
+@Restricted(NoExternalUse.class)
+public final class SaveSession implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SaveSession.class.getName());
+
+    /** Number of threads used to flush dirty components, saves are sequential unless greater than 1. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int FLUSH_PARALLELISM = Integer.getInteger(SaveSession.class.getName() + ".flushParallelism", 1);
+
+    private static final ThreadLocal<SaveSession> ACTIVE = new ThreadLocal<>();
+
+    /** dirty components, by identity and in order */
+    private final Map<Saveable, Boolean> dirty = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final List<Saveable> order = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<String, AtomicInteger> writes = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    private final SaveSession previous;
+    private boolean committed;
+
+    private SaveSession(SaveSession previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Open a new session on the current thread, which starts counting its XML writes.
+     */
+    @NonNull
+    public static SaveSession open() {
+        final SaveSession session = new SaveSession(ACTIVE.get());
+        ACTIVE.set(session);
+        return session;
+    }
+
+    @CheckForNull
+    static SaveSession active() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * Count XML writes of the current thread in <code>session</code>, as when working on behalf of the applying
+     * thread.
+     * @return the session previously attached to the current thread, to attach back once done
+     */
+    @CheckForNull
+    public static SaveSession attach(@CheckForNull SaveSession session) {
+        final SaveSession previous = ACTIVE.get();
+        if (session != null) {
+            ACTIVE.set(session);
+        } else {
+            ACTIVE.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Record a component as dirty, it will be saved when the session is committed.
+     */
+    public void defer(@NonNull Saveable saveable) {
+        if (dirty.put(saveable, Boolean.TRUE) == null) {
+            order.add(saveable);
+        }
+    }
+
+    /**
+     * Save each dirty component once.
+     * @throws ConfiguratorException if some component failed to save, others are saved anyway
+     */
+    public void commit() throws ConfiguratorException {
+        final List<Saveable> saveables;
+        synchronized (order) {
+            saveables = new ArrayList<>(order);
+            order.clear();
+            dirty.clear();
+        }
+        committed = true;
+        if (saveables.isEmpty()) return;
+
+        final List<IOException> failures = FLUSH_PARALLELISM > 1 && saveables.size() > 1
+                ? flushInParallel(this, saveables)
+                : flush(saveables);
+
+        if (!failures.isEmpty()) {
+            final IOException first = failures.get(0);
+            final ConfiguratorException e = new ConfiguratorException("Failed to save configuration", first);
+            failures.stream().skip(1).forEach(e::addSuppressed);
+            throw e;
+        }
+    }
+
+    private static List<IOException> flush(List<Saveable> saveables) {
+        final List<IOException> failures = new ArrayList<>();
+        for (Saveable saveable : saveables) {
+            try {
+                saveable.save();
+            } catch (IOException e) {
+                failures.add(new IOException("Failed to save " + saveable, e));
+            }
+        }
+        return failures;
+    }
+
+    private static List<IOException> flushInParallel(SaveSession session, List<Saveable> saveables) {
+        final Authentication auth = Jenkins.getAuthentication();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(FLUSH_PARALLELISM, saveables.size()),
+                new NamingThreadFactory(new DaemonThreadFactory(), "CasC save session"));
+        try {
+            final List<Future<List<IOException>>> futures = new ArrayList<>();
+            for (Saveable saveable : saveables) {
+                futures.add(executor.submit(() -> {
+                    final SaveSession previous = attach(session);
+                    try (ACLContext ignored = ACL.as(auth)) {
+                        return flush(Collections.singletonList(saveable));
+                    } finally {
+                        attach(previous);
+                    }
+                }));
+            }
+            final List<IOException> failures = new ArrayList<>();
+            for (Future<List<IOException>> future : futures) {
+                try {
+                    failures.addAll(future.get());
+                } catch (ExecutionException e) {
+                    failures.add(new IOException(e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.add(new IOException(e));
+                    break;
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Stop counting XML writes. Components still dirty, typically because the apply failed before the session was
+     * committed, are saved so that persisted configuration matches the live one.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!committed || !order.isEmpty()) {
+                commit();
+            }
+        } catch (ConfiguratorException e) {
+            LOGGER.log(Level.WARNING, "Failed to save configuration", e);
+        } finally {
+            if (ACTIVE.get() == this) {
+                attach(previous);
+            }
+        }
+    }
+
+    void recordWrite(@NonNull XmlFile file) {
+        writes.computeIfAbsent(file.getFile().getAbsolutePath(), f -> new AtomicInteger()).incrementAndGet();
+        total.incrementAndGet();
+    }
+
+    /**
+     * @return total number of XML writes recorded while this session was open
+     */
+    public int getWrites() {
+        return total.get();
+    }
+
+    /**
+     * @return number of XML writes recorded while this session was open, per file absolute path
+     */
+    @NonNull
+    public Map<String, Integer> getWritesPerFile() {
+        final Map<String, Integer> result = new TreeMap<>();
+        writes.forEach((file, count) -> result.put(file, count.get()));
+        return result;
+    }
+
+    /**
+     * Counts XML writes while a {@link SaveSession} is open.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class WriteCounter extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            final SaveSession session = ACTIVE.get();
+            if (session != null && file != null) {
+                session.recordWrite(file);
+            }
+        }
+    }
+}
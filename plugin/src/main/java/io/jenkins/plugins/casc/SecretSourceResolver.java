@@ -1,7 +1,9 @@
 package io.jenkins.plugins.casc;
 
+import io.jenkins.plugins.casc.jfr.CascEvents;
 import io.vavr.Tuple;
 import io.vavr.control.Try;
+import java.io.IOException;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -74,9 +76,18 @@ public class SecretSourceResolver {
     }
 
     private static Optional<String> reveal(ConfigurationContext context, String captured) {
-        return context.getSecretSources().stream()
-                .map(source -> unchecked(() -> source.reveal(captured)).apply())
-                .flatMap(o -> o.map(Stream::of).orElseGet(Stream::empty))
-                .findFirst();
+        try (ApplyProfiler.Frame frame = ApplyProfiler.enter(ApplyProfiler.SECRETS)) {
+            return context.getSecretSources().stream()
+                    .map(source -> unchecked(() -> reveal(source, captured)).apply())
+                    .flatMap(o -> o.map(Stream::of).orElseGet(Stream::empty))
+                    .findFirst();
+        }
+    }
+
+    private static Optional<String> reveal(SecretSource source, String captured) throws IOException {
+        CascMetrics.get().recordSecretLookup(source.getClass().getName());
+        try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.SECRET_REVEAL, source.getClass().getName())) {
+            return source.reveal(captured);
+        }
     }
 }
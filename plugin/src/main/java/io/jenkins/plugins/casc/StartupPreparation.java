@@ -0,0 +1,141 @@
+package io.jenkins.plugins.casc;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.yaml.MergeStrategyFactory;
+import io.jenkins.plugins.casc.yaml.ModelSnapshot;
+import io.jenkins.plugins.casc.yaml.YamlSource;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Loads configuration in the background while Jenkins is starting.
+ * <p>
+ * As soon as plugins are started, configuration sources are discovered, fetched, parsed and merged, and secret
+ * sources are initialized while the configurators it needs are {@link ConfiguratorWarmup resolved}, on dedicated
+ * threads. The configurator registry is first seeded from the {@link ApplyPlan} recorded by the previous apply, if it
+ * still matches. {@link ConfigurationAsCode#init()} then only waits for the prepared model and applies it. Should
+ * preparation fail, configuration is loaded again on the init thread so the failure is reported as usual.
+ * <p>
+ * Preparation is skipped when an initial delay is set, so the delay still applies to the whole loading process, and
+ * can be disabled with the <code>io.jenkins.plugins.casc.StartupPreparation.disabled</code> system property.
+ */
+@Restricted(NoExternalUse.class)
+public final class StartupPreparation {
+
+    private static final Logger LOGGER = Logger.getLogger(StartupPreparation.class.getName());
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean DISABLED = Boolean.getBoolean(StartupPreparation.class.getName() + ".disabled");
+
+    private static Future<Prepared> pending;
+
+    private StartupPreparation() {
+    }
+
+    @Initializer(after = InitMilestone.PLUGINS_STARTED, before = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static synchronized void start() {
+        if (DISABLED || Long.getLong(ConfigurationAsCode.class.getName() + ".initialDelay") != null) {
+            return;
+        }
+        final ConfigurationAsCode casc = ConfigurationAsCode.get();
+        final ClassLoader classLoader = Jenkins.getInstance().getPluginManager().uberClassLoader;
+        final ExecutorService executor = Executors.newSingleThreadExecutor(
+                new NamingThreadFactory(new DaemonThreadFactory(), "CasC startup preparation"));
+        pending = executor.submit(() -> {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                return prepare(casc);
+            }
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * Discover, read and merge configuration sources, and initialize secret sources.
+     */
+    @NonNull
+    static Prepared prepare(@NonNull ConfigurationAsCode casc) throws ConfiguratorException {
+        final long start = System.nanoTime();
+        final List<String> standardConfig = casc.getStandardConfig();
+        final List<YamlSource> sources = casc.getConfigFromSources(standardConfig);
+        final Mapping model = ModelSnapshot.loadFrom(sources, MergeStrategyFactory.getMergeStrategy());
+        final ApplyPlan plan = ApplyPlan.get();
+        if (plan != null) {
+            plan.replay(ApplyPlan.key(model),
+                    Jenkins.getInstance().getExtensionList(DefaultConfiguratorRegistry.class).get(0));
+        }
+        final Future<ConfiguratorWarmup.Report> warmup = ConfiguratorWarmup.start(ConfiguratorRegistry.get(), model);
+        SecretSource.all().forEach(SecretSource::init);
+        if (warmup != null) {
+            try {
+                warmup.get();
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.FINE, "Failed to warm up configurators", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                warmup.cancel(true);
+            }
+        }
+        final long nanos = System.nanoTime() - start;
+        LOGGER.log(Level.FINE, "Configuration prepared in {0}ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+        return new Prepared(standardConfig, model, nanos);
+    }
+
+    /**
+     * Wait for configuration prepared in the background, if any. Preparation is only used once.
+     *
+     * @return prepared configuration, or <code>null</code> if it wasn't prepared or preparation failed
+     */
+    @CheckForNull
+    static Prepared take() {
+        final Future<Prepared> future;
+        synchronized (StartupPreparation.class) {
+            future = pending;
+            pending = null;
+        }
+        if (future == null) return null;
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.FINE, "Failed to prepare configuration, loading it again", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        return null;
+    }
+
+    /**
+     * Configuration model prepared in the background, with its secret sources initialized.
+     */
+    static final class Prepared {
+
+        final List<String> sources;
+        final Mapping model;
+        final long nanos;
+
+        private Prepared(List<String> sources, Mapping model, long nanos) {
+            this.sources = sources;
+            this.model = model;
+            this.nanos = nanos;
+        }
+    }
+}
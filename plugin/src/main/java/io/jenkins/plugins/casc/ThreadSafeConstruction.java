@@ -0,0 +1,21 @@
+package io.jenkins.plugins.casc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Configurator} implementation, or a component type it builds, as safe to be constructed concurrently
+ * with its siblings when it is an element of a sequence attribute.
+ * <p>
+ * Only relevant when parallel construction has been enabled, see {@link ParallelConstruction}.
+ * Implementations must not rely on the calling thread (thread locals, {@link hudson.BulkChange} scope) nor mutate
+ * shared Jenkins state while building an element.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ThreadSafeConstruction {
+}
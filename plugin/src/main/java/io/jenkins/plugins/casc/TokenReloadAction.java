@@ -3,9 +3,8 @@ package io.jenkins.plugins.casc;
 import com.google.common.base.Strings;
 import hudson.Extension;
 import hudson.model.UnprotectedRootAction;
-import hudson.security.ACL;
-import hudson.security.ACLContext;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.servlet.http.HttpServletRequest;
@@ -21,6 +20,7 @@ public class TokenReloadAction implements UnprotectedRootAction {
     public static final String URL_NAME = "reload-configuration-as-code";
     public static final String RELOAD_TOKEN_PROPERTY = "casc.reload.token";
     public static final String RELOAD_TOKEN_QUERY_PARAMETER = "casc-reload-token";
+    public static final String ASYNC_QUERY_PARAMETER = "async";
 
     @CheckForNull
     @Override
@@ -53,8 +53,20 @@ public class TokenReloadAction implements UnprotectedRootAction {
             if (token.equals(requestToken)) {
                 LOGGER.info("Configuration reload triggered via token");
 
-                try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
-                    ConfigurationAsCode.get().configure();
+                if (Boolean.parseBoolean(request.getParameter(ASYNC_QUERY_PARAMETER))) {
+                    final ReloadQueue.Reload reload = ReloadQueue.get().submit("token");
+                    response.setStatus(HttpStatus.SC_ACCEPTED);
+                    response.setHeader(ReloadQueue.RELOAD_ID_HEADER, String.valueOf(reload.getId()));
+                    response.setContentType("application/json; charset=utf-8");
+                    response.getWriter().write(reload.toJSON().toString());
+                } else {
+                    try {
+                        final ReloadQueue.Reload reload = ReloadQueue.get().reloadAndWait("token");
+                        response.setHeader(ReloadQueue.RELOAD_ID_HEADER, String.valueOf(reload.getId()));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for configuration reload");
+                    }
                 }
             } else {
                 response.sendError(HttpStatus.SC_UNAUTHORIZED);
@@ -0,0 +1,329 @@
+package io.jenkins.plugins.casc.auto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.flipkart.zjsonpatch.JsonDiff;
+import com.flipkart.zjsonpatch.JsonPatch;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.casc.ConfigurationAsCode;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.ExportCache;
+import io.jenkins.plugins.casc.yaml.YamlSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * History of the configuration backups, kept in <code>JENKINS_HOME/casc_backup_history</code>.
+ * <p>
+ * Each backup is recorded as a new revision, either as a full snapshot or as the JSON patch from the previous
+ * revision, both gzip compressed. A snapshot is written every
+ * <code>io.jenkins.plugins.casc.auto.BackupHistory.snapshotInterval</code> revisions, so rebuilding any revision
+ * applies at most that many patches to the closest snapshot. Revisions older than the last
+ * <code>io.jenkins.plugins.casc.auto.BackupHistory.retention</code> ones are removed, together with the patches
+ * depending on them.
+ * <p>
+ * When the backup tells which root elements changed since the previous one, only those are parsed and diffed, the
+ * whole configuration is only read again after a restart or if the previous revision wasn't recorded by this instance.
+ */
+@Restricted(NoExternalUse.class)
+public class BackupHistory {
+    private static final Logger LOGGER = Logger.getLogger(BackupHistory.class.getName());
+
+    private static final String HISTORY_DIR = "casc_backup_history";
+    private static final String SNAPSHOT_SUFFIX = ".json.gz";
+    private static final String PATCH_SUFFIX = ".patch.json.gz";
+    private static final Pattern FILE_NAME = Pattern.compile("(\\d+)(\\.patch)?\\.json\\.gz");
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int SNAPSHOT_INTERVAL = Integer.getInteger(BackupHistory.class.getName() + ".snapshotInterval", 10);
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int RETENTION = Integer.getInteger(BackupHistory.class.getName() + ".retention", 100);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper YAML = new ObjectMapper(new YAMLFactory());
+
+    private static BackupHistory instance;
+
+    private final Path dir;
+
+    /** latest revision recorded by this instance and its configuration, to compute the next patch */
+    private long latestRevision = -1;
+    private JsonNode latest;
+
+    BackupHistory(@NonNull Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * @return history of the current Jenkins instance
+     */
+    public static synchronized BackupHistory get() {
+        final Path dir = new File(Jenkins.getInstance().getRootDir(), HISTORY_DIR).toPath();
+        if (instance == null || !instance.dir.equals(dir)) {
+            instance = new BackupHistory(dir);
+        }
+        return instance;
+    }
+
+    /**
+     * Record the exported configuration in <code>file</code> as a new revision.
+     * @return the new revision
+     */
+    public long record(@NonNull File file) throws IOException {
+        return record(YAML.readTree(file));
+    }
+
+    /**
+     * Record the backup exported to <code>file</code> as a new revision, only reading the root elements which changed
+     * according to <code>splice</code> when possible.
+     * @return the new revision
+     */
+    public long record(@NonNull File file, @NonNull ExportCache.Splice splice) throws IOException {
+        if (!splice.isComplete()) {
+            return record(file);
+        }
+        final Map<String, JsonNode> changes = new HashMap<>();
+        for (Map.Entry<String, byte[]> entry : splice.getChanged().entrySet()) {
+            // pruned root elements are removed
+            changes.put(entry.getKey(), entry.getValue().length == 0 ? null : YAML.readTree(entry.getValue()).get(entry.getKey()));
+        }
+        return record(file, changes);
+    }
+
+    /**
+     * Record a new revision, made of the previous one with <code>changes</code> applied, or of the configuration in
+     * <code>file</code> if the previous revision isn't known.
+     * @param changes new value of each changed root element by name, <code>null</code> if removed
+     * @return the new revision
+     */
+    synchronized long record(@NonNull File file, @NonNull Map<String, JsonNode> changes) throws IOException {
+        final TreeMap<Long, Boolean> revisions = list();
+        final long previous = revisions.isEmpty() ? -1 : revisions.lastKey();
+        if (previous < 0 || latestRevision != previous || latest == null || !latest.isObject()) {
+            return record(YAML.readTree(file));
+        }
+        final long revision = previous + 1;
+        final boolean full = revision - lastSnapshot(revisions, previous) >= Math.max(1, SNAPSHOT_INTERVAL);
+
+        final ObjectNode config = (ObjectNode) latest;
+        final ArrayNode patch = JSON.createArrayNode();
+        try {
+            for (Map.Entry<String, JsonNode> change : changes.entrySet()) {
+                final String name = change.getKey();
+                final String pointer = "/" + name.replace("~", "~0").replace("/", "~1");
+                final JsonNode before = config.get(name);
+                final JsonNode after = change.getValue();
+                if (after == null) {
+                    if (before == null) continue;
+                    patch.addObject().put("op", "remove").put("path", pointer);
+                    config.remove(name);
+                    continue;
+                }
+                if (before == null) {
+                    patch.addObject().put("op", "add").put("path", pointer).set("value", after);
+                } else if (!full) {
+                    for (JsonNode operation : JsonDiff.asJson(before, after)) {
+                        prefix((ObjectNode) operation, "path", pointer);
+                        prefix((ObjectNode) operation, "from", pointer);
+                        patch.add(operation);
+                    }
+                }
+                config.set(name, after);
+            }
+            write(revision, full, full ? config : patch);
+        } catch (IOException | RuntimeException e) {
+            // latest may hold changes which weren't recorded, rebuild it next time
+            latestRevision = -1;
+            latest = null;
+            throw e;
+        }
+        latestRevision = revision;
+        LOGGER.fine(() -> "recorded configuration revision " + revision + (full ? " as snapshot" : " as patch")
+                + " from " + changes.size() + " changed root elements");
+
+        revisions.put(revision, full);
+        prune(revisions);
+        return revision;
+    }
+
+    private static void prefix(ObjectNode operation, String field, String pointer) {
+        final JsonNode path = operation.get(field);
+        if (path != null) {
+            operation.put(field, pointer + path.asText());
+        }
+    }
+
+    /**
+     * Record <code>config</code> as a new revision.
+     * @return the new revision
+     */
+    public synchronized long record(@NonNull JsonNode config) throws IOException {
+        final TreeMap<Long, Boolean> revisions = list();
+        final long previous = revisions.isEmpty() ? -1 : revisions.lastKey();
+        if (previous >= 0 && latestRevision != previous) {
+            latest = rebuild(revisions, previous);
+        }
+        final long revision = previous + 1;
+
+        final boolean full = previous < 0 || latest == null
+                || revision - lastSnapshot(revisions, previous) >= Math.max(1, SNAPSHOT_INTERVAL);
+        if (full) {
+            write(revision, true, config);
+        } else {
+            write(revision, false, JsonDiff.asJson(latest, config));
+        }
+        latestRevision = revision;
+        latest = config.deepCopy();
+        LOGGER.fine(() -> "recorded configuration revision " + revision + (full ? " as snapshot" : " as patch"));
+
+        revisions.put(revision, full);
+        prune(revisions);
+        return revision;
+    }
+
+    /**
+     * @return recorded revisions, oldest first
+     */
+    @NonNull
+    public synchronized List<Long> getRevisions() throws IOException {
+        return Collections.unmodifiableList(new ArrayList<>(list().keySet()));
+    }
+
+    /**
+     * Rebuild the configuration as of <code>revision</code>.
+     */
+    @NonNull
+    public synchronized JsonNode rebuild(long revision) throws IOException {
+        final TreeMap<Long, Boolean> revisions = list();
+        if (!revisions.containsKey(revision)) {
+            throw new IOException("No such configuration revision " + revision);
+        }
+        if (revision == latestRevision && latest != null) {
+            return latest.deepCopy();
+        }
+        return rebuild(revisions, revision);
+    }
+
+    /**
+     * Apply the configuration as of <code>revision</code> to the Jenkins instance.
+     */
+    public void restore(long revision) throws IOException, ConfiguratorException {
+        final ByteArrayOutputStream yaml = new ByteArrayOutputStream();
+        YAML.writeValue(yaml, rebuild(revision));
+        LOGGER.info("restoring configuration revision " + revision);
+        ConfigurationAsCode.get().configureWith(YamlSource.of(new ByteArrayInputStream(yaml.toByteArray())));
+    }
+
+    private JsonNode rebuild(TreeMap<Long, Boolean> revisions, long revision) throws IOException {
+        final long snapshot = lastSnapshot(revisions, revision);
+        if (snapshot < 0) {
+            throw new IOException("No snapshot found for configuration revision " + revision);
+        }
+        JsonNode config = read(snapshot, true);
+        for (Long r : revisions.subMap(snapshot, false, revision, true).keySet()) {
+            config = JsonPatch.apply(read(r, false), config);
+        }
+        return config;
+    }
+
+    private static long lastSnapshot(TreeMap<Long, Boolean> revisions, long revision) {
+        for (Long r : revisions.headMap(revision, true).descendingKeySet()) {
+            if (revisions.get(r)) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remove revisions beyond retention, down to the snapshot the oldest retained revision is rebuilt from.
+     */
+    private void prune(TreeMap<Long, Boolean> revisions) {
+        if (RETENTION <= 0) {
+            return;
+        }
+        final long oldest = lastSnapshot(revisions, revisions.lastKey() - RETENTION + 1);
+        for (Long r : revisions.headMap(oldest, false).keySet()) {
+            try {
+                Files.deleteIfExists(path(r, revisions.get(r)));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "failed to remove configuration revision " + r, e);
+            }
+        }
+    }
+
+    /**
+     * @return revisions found in the history directory, mapped to whether they are a full snapshot
+     */
+    private TreeMap<Long, Boolean> list() throws IOException {
+        final TreeMap<Long, Boolean> revisions = new TreeMap<>();
+        if (!Files.isDirectory(dir)) {
+            return revisions;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                final Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    revisions.put(Long.parseLong(matcher.group(1)), matcher.group(2) == null);
+                }
+            }
+        }
+        return revisions;
+    }
+
+    private Path path(long revision, boolean snapshot) {
+        return dir.resolve(String.format("%012d", revision) + (snapshot ? SNAPSHOT_SUFFIX : PATCH_SUFFIX));
+    }
+
+    private JsonNode read(long revision, boolean snapshot) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path(revision, snapshot)))) {
+            return JSON.readTree(in);
+        }
+    }
+
+    private void write(long revision, boolean snapshot, @NonNull JsonNode node) throws IOException {
+        Files.createDirectories(dir);
+        final Path target = path(revision, snapshot);
+        final Path tmp = Files.createTempFile(dir, "revision", ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                JSON.writeValue(out, node);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
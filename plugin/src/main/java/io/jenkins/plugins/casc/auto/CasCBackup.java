@@ -1,23 +1,55 @@
 package io.jenkins.plugins.casc.auto;
 
 import hudson.Extension;
+import hudson.Util;
 import hudson.XmlFile;
 import hudson.init.InitMilestone;
 import hudson.model.Saveable;
 import hudson.model.listeners.ItemListener;
 import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import io.jenkins.plugins.casc.ConfigurationAsCode;
-import java.io.ByteArrayOutputStream;
+import io.jenkins.plugins.casc.ExportCache;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.GlobalConfiguration;
 import jenkins.model.Jenkins;
 
+/**
+ * Exports configuration to <code>JENKINS_HOME/jenkins.backup.yaml</code> when some {@link GlobalConfiguration} is
+ * saved, if the <code>CASC_AUTO_BACKUP</code> environment variable is set to <code>true</code>.
+ * <p>
+ * Saves are debounced: a single export runs once no configuration has been saved for a quiet period, set in
+ * milliseconds by the <code>io.jenkins.plugins.casc.auto.CasCBackup.quietPeriodMillis</code> system property.
+ * Callers never wait for the backup, which runs on its own thread, only started when backup is enabled. The backup
+ * file is only written when the export changed, atomically.
+ * <p>
+ * Descriptions and the YAML of each root element are kept in {@link ExportCache#forBackup()} from a backup to the
+ * next. Each save invalidates what depends on the saved component, so only the descriptors saved during the quiet
+ * period and the root elements holding them are described and serialized again, the others being spliced as they
+ * were. The backup file isn't written when none of them changed, and the history only diffs those which did.
+ */
 @Extension(ordinal = Integer.MIN_VALUE)
 public class CasCBackup extends SaveableListener {
     private static final Logger LOGGER = Logger.getLogger(CasCBackup.class.getName());
@@ -25,14 +57,26 @@ public class CasCBackup extends SaveableListener {
     private static final String DEFAULT_JENKINS_YAML_FILE = "jenkins.yaml";
     private static final String JENKINS_BACKUP_YAML_FILE = "jenkins.backup.yaml";
 
-    private static final boolean enableBackup;
-    private static final BlockingQueue<Saveable> queue;
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    static boolean enableBackup = "true".equals(System.getenv("CASC_AUTO_BACKUP"));
 
-    static {
-        enableBackup = "true".equals(System.getenv("CASC_AUTO_BACKUP"));
-        queue = new ArrayBlockingQueue<Saveable>(200);
-        new Thread(new BackupThread(), "CASC backup thread").start();
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static long QUIET_PERIOD_MILLIS = Long.getLong(CasCBackup.class.getName() + ".quietPeriodMillis", 500);
+
+    /** time of the latest change not backed up yet */
+    private static final AtomicLong lastChange = new AtomicLong();
+    private static final AtomicBoolean scheduled = new AtomicBoolean();
+    private static final AtomicLong backups = new AtomicLong();
+
+    private static final Object EXECUTOR_LOCK = new Object();
+    private static final Object BACKUP_LOCK = new Object();
+    private static ScheduledExecutorService executor;
+
+    /** digest of the latest backup file written or checked */
+    private static Path lastBackup;
+    private static String lastDigest;
 
+    static {
         LOGGER.info("CasCBackup is " + (enableBackup ? "enabled" : "disabled"));
     }
 
@@ -52,64 +96,187 @@ public class CasCBackup extends SaveableListener {
             return;
         }
 
-        try {
-            queue.put(o);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        requestBackup();
+    }
+
+    /**
+     * Schedule a backup once the quiet period has elapsed, unless one is already scheduled.
+     */
+    static void requestBackup() {
+        lastChange.set(System.nanoTime());
+        if (scheduled.compareAndSet(false, true)) {
+            executor().schedule(CasCBackup::backupWhenQuiet, QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
         }
     }
 
-    @Extension
-    public static class BackupThread extends ItemListener implements Runnable {
+    private static void backupWhenQuiet() {
+        final long quietNanos = TimeUnit.MILLISECONDS.toNanos(QUIET_PERIOD_MILLIS);
+        final long elapsed = System.nanoTime() - lastChange.get();
+        if (elapsed < quietNanos) {
+            // configuration was saved again meanwhile
+            executor().schedule(CasCBackup::backupWhenQuiet, quietNanos - elapsed, TimeUnit.NANOSECONDS);
+            return;
+        }
+        // changes from now on will schedule another backup
+        scheduled.set(false);
+        try {
+            backup();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "error happen when backing up the configuration", e);
+        }
+    }
 
-        @Override
-        public void run() {
-            while(!Jenkins.getInstance().isTerminating()) {
-                try {
-                    queue.take(); // don't use the item here, just want to delay the following action
-                    if (queue.size() > 0) {
-                        Thread.sleep(500);
-                        continue;
-                    }
-
-                    backup();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+    /**
+     * Run a task on the backup thread, after any pending backup.
+     */
+    static void submit(Runnable task) {
+        executor().execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "error happen on the backup thread", e);
             }
-        }
+        });
+    }
 
-        @Override
-        public void onBeforeShutdown() {
-            // make sure the queue is empty before Jenkins shutdown
-            if (queue.size() > 0) {
-                backup();
+    private static ScheduledExecutorService executor() {
+        synchronized (EXECUTOR_LOCK) {
+            if (executor == null) {
+                final ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1,
+                        new NamingThreadFactory(new DaemonThreadFactory(), "CasC backup"));
+                pool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+                executor = pool;
             }
+            return executor;
         }
+    }
 
-        private void backup() {
-            LOGGER.info("start to backup casc yaml file");
-
-            ByteArrayOutputStream buf = new ByteArrayOutputStream();
-            File backupFile = new File(Jenkins.getInstance().getRootDir(), JENKINS_BACKUP_YAML_FILE);
-            try (OutputStream writer = new FileOutputStream(backupFile)) {
-                ConfigurationAsCode.get().export(buf);
-                writer.write(buf.toByteArray());
+    /**
+     * Export configuration to the backup file, and patch the user configuration if it changed.
+     * @return <code>true</code> if the backup file has been written
+     */
+    static boolean backup() {
+        synchronized (BACKUP_LOCK) {
+            LOGGER.fine("start to backup casc yaml file");
 
-                LOGGER.fine(String.format("backup file was saved, %s", backupFile.getAbsolutePath()));
+            final File rootDir = Jenkins.getInstance().getRootDir();
+            final Path backupFile = new File(rootDir, JENKINS_BACKUP_YAML_FILE).toPath();
+            final ExportCache.Splice splice;
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                splice = ConfigurationAsCode.get().exportBackup();
+                if (!write(backupFile, splice)) {
+                    LOGGER.fine("configuration is unchanged, backup skipped");
+                    return false;
+                }
             } catch (Exception e) {
+                // the YAML kept for the next backup may not be what the backup file holds
+                ExportCache.forBackup().forgetSerialized();
+                lastBackup = null;
                 LOGGER.log(Level.WARNING, "error happen when exporting the whole config into a YAML", e);
-                return;
+                return false;
             }
+            backups.incrementAndGet();
             LOGGER.info("done with the backup casc yaml file");
-            generatePath();
-        }
 
-        private void generatePath() {
-            File rootDir = Jenkins.getInstance().getRootDir();
+            try {
+                BackupHistory.get().record(backupFile.toFile(), splice);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "error happen when recording the backup history", e);
+            }
+
             PatchConfig.patchConfig(new File(rootDir, DEFAULT_JENKINS_YAML_FILE),
-                new File(rootDir, JENKINS_BACKUP_YAML_FILE),
+                backupFile.toFile(),
                 new File(rootDir, "casc_config_auto/" + DEFAULT_JENKINS_YAML_FILE));
+            return true;
+        }
+    }
+
+    /**
+     * Write the export to a temporary file, then replace <code>target</code> with it unless it has the same
+     * content. Nothing is written if no root element changed since <code>target</code> was last written or checked.
+     * Only called with {@link #BACKUP_LOCK} held.
+     */
+    private static boolean write(Path target, ExportCache.Splice splice) throws Exception {
+        if (splice.isUnchanged() && target.equals(lastBackup) && Files.exists(target)) {
+            return false;
+        }
+        final MessageDigest digest = sha256();
+        final Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), "jenkins.backup", ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+                final OutputStream out = new BufferedOutputStream(new DigestOutputStream(file, digest));
+                splice.writeTo(out);
+                out.flush();
+                file.getFD().sync();
+            }
+            final String exported = Util.toHexString(digest.digest());
+            if (!target.equals(lastBackup)) {
+                lastBackup = target;
+                lastDigest = digestOf(target);
+            }
+            if (exported.equals(lastDigest)) {
+                return false;
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            lastDigest = exported;
+            return true;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @return SHA-256 of <code>file</code>, or <code>null</code> if it doesn't exist
+     */
+    static String digestOf(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        final MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return Util.toHexString(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is a mandatory algorithm", e);
+        }
+    }
+
+    /**
+     * @return number of times the backup file has been written
+     */
+    static long getBackups() {
+        return backups.get();
+    }
+
+    @Extension
+    public static class FlushOnShutdown extends ItemListener {
+
+        @Override
+        public void onBeforeShutdown() {
+            // make sure pending changes are backed up before Jenkins shutdown
+            if (scheduled.getAndSet(false)) {
+                backup();
+            }
+            synchronized (EXECUTOR_LOCK) {
+                if (executor != null) {
+                    executor.shutdownNow();
+                    executor = null;
+                }
+            }
         }
     }
 }
@@ -0,0 +1,259 @@
+package io.jenkins.plugins.casc.auto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.flipkart.zjsonpatch.JsonDiff;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Three-way merge of configuration trees: the changes made by the user to a baseline configuration are applied to a
+ * new version of the system configuration.
+ * <p>
+ * Lists whose elements can all be told apart by a key are matched by key rather than by index, so reordering a list
+ * or adding an element doesn't conflict with changes to other elements. Elements are keyed by their
+ * <code>name</code>, <code>id</code> or <code>key</code> attribute, by the symbol and name of a single-entry mapping
+ * as in <code>- permanent: {name: agent}</code>, or by their value for scalars. Other lists are replaced as a whole.
+ * <p>
+ * The patch between the baseline and the user configuration is computed with zjsonpatch, then replayed on the system
+ * configuration with the user values, the user winning when both changed the same value. Values missing from the user
+ * configuration are only removed if the previous user configuration had them: the user configuration is an export,
+ * which never holds some values of the system configuration, such as jobs or default values.
+ */
+@Restricted(NoExternalUse.class)
+public final class ConfigMerge {
+
+    private static final List<String> KEYS = Collections.unmodifiableList(Arrays.asList("name", "id", "key"));
+
+    /** field of the mapping a keyed list is converted to, which can't be a YAML attribute name */
+    private static final String LIST = "\u0000list";
+
+    private ConfigMerge() {
+    }
+
+    /**
+     * @param system new system configuration
+     * @param baseline system configuration the user configuration is based on, <code>system</code> if unknown
+     * @param previous user configuration as of the previous merge, <code>null</code> if unknown
+     * @param user user configuration
+     * @return <code>system</code> with the changes from <code>baseline</code> to <code>user</code>, only removing
+     * what <code>previous</code> had
+     */
+    @NonNull
+    public static JsonNode merge(@CheckForNull JsonNode system, @CheckForNull JsonNode baseline,
+                                 @CheckForNull JsonNode previous, @CheckForNull JsonNode user) {
+        final JsonNode keyedUser = keyed(user);
+        final JsonNode keyedBaseline = baseline != null ? keyed(baseline) : keyed(system);
+        final JsonNode keyedPrevious = previous != null ? keyed(previous) : null;
+        JsonNode merged = keyed(system);
+
+        final Set<List<String>> changes = new LinkedHashSet<>();
+        for (JsonNode op : JsonDiff.asJson(keyedBaseline, keyedUser)) {
+            changed(changes, op.path("path").asText(), keyedBaseline, keyedUser);
+            if (op.has("from")) {
+                changed(changes, op.get("from").asText(), keyedBaseline, keyedUser);
+            }
+        }
+        for (List<String> path : changes) {
+            merged = apply(merged, path, keyedUser, keyedPrevious);
+        }
+        return unkeyed(merged);
+    }
+
+    /**
+     * Record the path changed by an operation, or its closest list ancestor for lists which aren't keyed.
+     */
+    private static void changed(Set<List<String>> changes, String pointer, JsonNode baseline, JsonNode user) {
+        final List<String> path = parse(pointer);
+        final int list = Math.min(listAncestor(baseline, path), listAncestor(user, path));
+        changes.add(new ArrayList<>(path.subList(0, list)));
+    }
+
+    /**
+     * @return number of leading tokens of <code>path</code> leading to a list in <code>node</code>, or the path size
+     */
+    private static int listAncestor(JsonNode node, List<String> path) {
+        for (int i = 0; i < path.size(); i++) {
+            if (node == null || !node.isObject()) {
+                return node != null && node.isArray() ? i : path.size();
+            }
+            node = node.get(path.get(i));
+        }
+        return path.size();
+    }
+
+    /**
+     * Set the value at <code>path</code> to the user one, or remove it if the user removed it since the previous merge.
+     * @return the merged tree, which is replaced by the user one when the root changed
+     */
+    private static JsonNode apply(JsonNode merged, List<String> path, JsonNode user, @CheckForNull JsonNode previous) {
+        if (path.isEmpty()) {
+            return copy(user);
+        }
+        final JsonNode value = at(user, path);
+        if (!merged.isObject()) {
+            return copy(user);
+        }
+        ObjectNode parent = (ObjectNode) merged;
+        for (int i = 0; i < path.size() - 1; i++) {
+            final JsonNode child = parent.get(path.get(i));
+            if (child == null || !child.isObject()) {
+                if (value != null) {
+                    // missing on the system side, or not a mapping anymore
+                    parent.set(path.get(i), copy(at(user, path.subList(0, i + 1))));
+                }
+                return merged;
+            }
+            parent = (ObjectNode) child;
+        }
+        final String name = path.get(path.size() - 1);
+        if (value != null) {
+            parent.set(name, value.deepCopy());
+        } else if (at(previous, path) != null) {
+            parent.remove(name);
+        }
+        return merged;
+    }
+
+    @CheckForNull
+    private static JsonNode at(JsonNode node, List<String> path) {
+        for (String token : path) {
+            if (node == null || !node.isObject()) {
+                return null;
+            }
+            node = node.get(token);
+        }
+        return node;
+    }
+
+    private static JsonNode copy(@CheckForNull JsonNode node) {
+        return node != null ? node.deepCopy() : JsonNodeFactory.instance.objectNode();
+    }
+
+    /**
+     * @return tokens of a JSON pointer, unescaped
+     */
+    private static List<String> parse(String pointer) {
+        final List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    /**
+     * Convert lists whose elements all have a distinct key to mappings of the elements by key.
+     */
+    @NonNull
+    static JsonNode keyed(@CheckForNull JsonNode node) {
+        if (node == null || node.isMissingNode()) {
+            // empty file
+            return JsonNodeFactory.instance.objectNode();
+        }
+        if (node.isObject()) {
+            final ObjectNode keyed = JsonNodeFactory.instance.objectNode();
+            final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                keyed.set(field.getKey(), keyed(field.getValue()));
+            }
+            return keyed;
+        }
+        if (node.isArray()) {
+            final ObjectNode elements = JsonNodeFactory.instance.objectNode();
+            final ArrayNode list = JsonNodeFactory.instance.arrayNode();
+            final Set<String> keys = new HashSet<>();
+            boolean unique = true;
+            for (JsonNode element : node) {
+                final JsonNode converted = keyed(element);
+                list.add(converted);
+                final String key = unique ? key(element) : null;
+                unique = key != null && keys.add(key);
+                if (unique) {
+                    elements.set(key, converted);
+                }
+            }
+            if (!unique || elements.size() == 0) {
+                return list;
+            }
+            final ObjectNode keyed = JsonNodeFactory.instance.objectNode();
+            keyed.set(LIST, elements);
+            return keyed;
+        }
+        return node;
+    }
+
+    @CheckForNull
+    private static String key(JsonNode element) {
+        if (element.isValueNode()) {
+            return element.asText();
+        }
+        if (!element.isObject()) {
+            return null;
+        }
+        for (String key : KEYS) {
+            final JsonNode value = element.get(key);
+            if (value != null && value.isValueNode()) {
+                return key + '=' + value.asText();
+            }
+        }
+        if (element.size() == 1) {
+            final Map.Entry<String, JsonNode> symbol = element.fields().next();
+            final JsonNode value = symbol.getValue();
+            if (value.isValueNode()) {
+                return symbol.getKey() + ':' + value.asText();
+            }
+            final String nested = value.isObject() ? key(value) : null;
+            return symbol.getKey() + (nested != null ? ':' + nested : "");
+        }
+        return null;
+    }
+
+    /**
+     * Convert keyed lists back to lists.
+     */
+    @NonNull
+    static JsonNode unkeyed(@NonNull JsonNode node) {
+        if (node.isObject()) {
+            final JsonNode elements = node.get(LIST);
+            if (elements != null && node.size() == 1) {
+                final ArrayNode list = JsonNodeFactory.instance.arrayNode();
+                for (JsonNode element : elements) {
+                    list.add(unkeyed(element));
+                }
+                return list;
+            }
+            final ObjectNode object = JsonNodeFactory.instance.objectNode();
+            final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                object.set(field.getKey(), unkeyed(field.getValue()));
+            }
+            return object;
+        }
+        if (node.isArray()) {
+            final ArrayNode list = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode element : node) {
+                list.add(unkeyed(element));
+            }
+            return list;
+        }
+        return node;
+    }
+}
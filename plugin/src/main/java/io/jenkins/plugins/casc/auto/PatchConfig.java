@@ -1,26 +1,30 @@
 package io.jenkins.plugins.casc.auto;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.TextNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import hudson.ExtensionList;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 import hudson.init.InitMilestone;
 import hudson.init.Initializer;
+import io.jenkins.plugins.casc.ConfigurationAsCode;
+import io.jenkins.plugins.casc.ReloadQueue;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
 import java.net.URL;
-import java.util.Iterator;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.ServletContext;
-import jenkins.model.GlobalConfiguration;
 import jenkins.model.Jenkins;
 import org.apache.commons.io.IOUtils;
 
@@ -30,7 +34,17 @@ import org.apache.commons.io.IOUtils;
 public class PatchConfig {
     private static final Logger LOGGER = Logger.getLogger(CasCBackup.class.getName());
 
-    public static void patchConfig(File systemConfig, File userConfig, File targetConfig) {
+    /**
+     * Merge the changes made by the user since the previous system configuration into the system configuration, see
+     * {@link ConfigMerge}. The system and user configurations are kept next to <code>targetConfig</code> as the
+     * baseline of the next merge, and to tell what the user removed since.
+     * <p>
+     * Nothing is done if neither the system nor the user configuration changed since the last time they have been
+     * patched into <code>targetConfig</code>.
+     *
+     * @return <code>true</code> if the content of <code>targetConfig</code> changed
+     */
+    public static boolean patchConfig(File systemConfig, File userConfig, File targetConfig) {
         File targetDir = targetConfig.getParentFile();
         if(!targetDir.isDirectory()) {
             LOGGER.info("create target dir" + targetDir.getAbsolutePath() + " result is " + targetDir.mkdirs());
@@ -39,69 +53,135 @@ public class PatchConfig {
         if (!systemConfig.exists() && !userConfig.exists()) {
             LOGGER.warning("cannot found system config " + systemConfig.getAbsolutePath() +
                 "; and user config " + userConfig.getAbsolutePath());
-            return;
+            return false;
         }
 
-        if (!systemConfig.exists() && userConfig.exists()) {
-            try (InputStream userInput = new FileInputStream(userConfig);
-                OutputStream targetOut = new FileOutputStream(targetConfig)) {
-                IOUtils.copy(userInput, targetOut);
-            } catch (FileNotFoundException e) {
-                e.printStackTrace();
-            } catch (IOException e) {
-                e.printStackTrace();
+        final File baselineConfig = new File(targetDir, BASELINE_YAML_FILE);
+        final File previousUserConfig = new File(targetDir, PREVIOUS_BACKUP_YAML_FILE);
+        final File inputsDigest = new File(targetDir, INPUTS_DIGEST_FILE);
+        try {
+            final String digest = CasCBackup.digestOf(systemConfig.toPath()) + " " + CasCBackup.digestOf(userConfig.toPath());
+            if (targetConfig.exists() && inputsDigest.exists()
+                && digest.equals(new String(Files.readAllBytes(inputsDigest.toPath()), StandardCharsets.UTF_8))) {
+                LOGGER.fine("system and user config are unchanged, skip patching");
+                return false;
             }
-            return;
-        }
+            final String before = CasCBackup.digestOf(targetConfig.toPath());
 
-        if (!userConfig.exists() && systemConfig.exists()) {
-            try (InputStream sysInput = new FileInputStream(systemConfig);
-                OutputStream targetOut = new FileOutputStream(targetConfig)) {
-                IOUtils.copy(sysInput, targetOut);
-            } catch (FileNotFoundException e) {
-                e.printStackTrace();
-            } catch (IOException e) {
-                e.printStackTrace();
+            if (!systemConfig.exists()) {
+                copy(userConfig, targetConfig);
+            } else if (!userConfig.exists()) {
+                copy(systemConfig, targetConfig);
+            } else {
+                YamlMapper mapper = new YamlMapper();
+                JsonNode system = mapper.read(systemConfig);
+                JsonNode baseline = baselineConfig.exists() ? mapper.read(baselineConfig) : null;
+                JsonNode previous = previousUserConfig.exists() ? mapper.read(previousUserConfig) : null;
+                JsonNode merged = ConfigMerge.merge(system, baseline, previous, mapper.read(userConfig));
+                write(targetConfig, out -> {
+                    try (YAMLGenerator generator = YAML.createGenerator(out)) {
+                        mapper.write(generator, merged);
+                    }
+                });
             }
-            return;
+            if (systemConfig.exists()) {
+                copy(systemConfig, baselineConfig);
+            }
+            if (userConfig.exists()) {
+                copy(userConfig, previousUserConfig);
+            }
+            write(inputsDigest, out -> out.write(digest.getBytes(StandardCharsets.UTF_8)));
+            return !Objects.equals(before, CasCBackup.digestOf(targetConfig.toPath()));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "error happen when patching " + targetConfig.getAbsolutePath(), e);
+            return false;
         }
+    }
 
-        YamlMapper mapper = new YamlMapper();
+    private static void copy(File src, File target) throws IOException {
+        write(target, out -> Files.copy(src.toPath(), out));
+    }
+
+    /**
+     * Stream to a temporary file, then replace <code>target</code> with it.
+     */
+    private static void write(File target, Content content) throws IOException {
+        final Path tmp = Files.createTempFile(target.getAbsoluteFile().getParentFile().toPath(), target.getName(), ".tmp");
         try {
-            JsonNode merged = merge(mapper.read(userConfig), mapper.read(systemConfig));
-            if(merged != null && !merged.isNull()) {
-                try (OutputStream userFileOutput = new FileOutputStream(targetConfig)) {
-                    mapper.write(new YAMLFactory().createGenerator(userFileOutput), merged);
-                }
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                content.writeTo(out);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            try {
+                Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
 
+    @FunctionalInterface
+    private interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
 
     private static final String DEFAULT_JENKINS_YAML_FILE = "jenkins.yaml";
     private static final String JENKINS_BACKUP_YAML_FILE = "jenkins.backup.yaml";
-
-    @Initializer(after= InitMilestone.JOB_LOADED, fatal=false)
-    public static void triggerConfigChange() {
-        // make sure we can always have a backup config file
-        LOGGER.info("triggerConfigChange");
-        ExtensionList<GlobalConfiguration> configs = GlobalConfiguration.all();
-        if (configs != null && configs.size() > 0) {
-            configs.get(0).save();
-            LOGGER.info("triggerConfigChange done");
-        } else {
-            LOGGER.severe("should not get here, there's no any GlobalConfiguration");
+    private static final String BASELINE_YAML_FILE = "jenkins.baseline.yaml";
+    private static final String PREVIOUS_BACKUP_YAML_FILE = "jenkins.backup.previous.yaml";
+    private static final String INPUTS_DIGEST_FILE = "jenkins.inputs.sha256";
+
+    private static final YAMLFactory YAML = new YAMLFactory();
+
+    /**
+     * Patch the configuration once Jenkins has started, on the backup thread, whether backup is enabled or not. If
+     * backup is enabled but there's no backup yet, request one instead, which patches the configuration once written.
+     */
+    @Initializer(after= InitMilestone.COMPLETED, fatal=false)
+    public static void patchAfterStartup() {
+        File rootDir = Jenkins.getInstance().getRootDir();
+        if (CasCBackup.enableBackup && !new File(rootDir, JENKINS_BACKUP_YAML_FILE).exists()) {
+            CasCBackup.requestBackup();
+            return;
         }
+        CasCBackup.submit(PatchConfig::patchConfig);
     }
 
-    @Initializer(after= InitMilestone.STARTED, fatal=false)
+    /**
+     * Patch the configuration, and reload it if the patched file is one of the configuration sources: this startup
+     * applied the previous patch result, as patching runs after configuration has been applied.
+     */
     public static void patchConfig() {
         File rootDir = Jenkins.getInstance().getRootDir();
-        PatchConfig.patchConfig(new File(rootDir, DEFAULT_JENKINS_YAML_FILE),
-            new File(rootDir, JENKINS_BACKUP_YAML_FILE),
-            new File(rootDir, "casc_config_auto/" + DEFAULT_JENKINS_YAML_FILE));
+        File target = new File(rootDir, "casc_config_auto/" + DEFAULT_JENKINS_YAML_FILE);
+        if (PatchConfig.patchConfig(new File(rootDir, DEFAULT_JENKINS_YAML_FILE),
+            new File(rootDir, JENKINS_BACKUP_YAML_FILE), target) && isSource(target)) {
+            LOGGER.info("patched configuration changed, reloading it");
+            ReloadQueue.get().submit("patch");
+        }
+    }
+
+    private static boolean isSource(File target) {
+        final List<String> sources = ConfigurationAsCode.get().getSources();
+        if (sources == null) {
+            return false;
+        }
+        final File file = target.getAbsoluteFile();
+        for (String source : sources) {
+            if (source.startsWith("file:")) {
+                try {
+                    source = URI.create(source).getPath();
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+            }
+            final File configured = new File(source).getAbsoluteFile();
+            if (configured.equals(file) || configured.equals(file.getParentFile())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static URL findConfig(String path) {
@@ -129,45 +209,4 @@ public class PatchConfig {
             IOUtils.copy(input, output);
         }
     }
-
-    private static JsonNode merge(JsonNode mainNode, JsonNode updateNode) {
-        if (mainNode == null || updateNode == null) {
-            return mainNode;
-        }
-        Iterator<String> fieldNames = updateNode.fieldNames();
-
-        while (fieldNames.hasNext()) {
-            String updatedFieldName = fieldNames.next();
-            JsonNode valueToBeUpdated = mainNode.get(updatedFieldName);
-            JsonNode updatedValue = updateNode.get(updatedFieldName);
-
-            if (valueToBeUpdated != null && valueToBeUpdated.isArray() &&
-                updatedValue.isArray()) {
-                ArrayNode updatedArrayNode = (ArrayNode)updatedValue;
-                ArrayNode arrayNodeToBeUpdated = (ArrayNode)valueToBeUpdated;
-                for(int i = 0; updatedArrayNode.has(i);++i) {
-                    if(arrayNodeToBeUpdated.has(i)) {
-                        JsonNode mergedNode = merge(arrayNodeToBeUpdated.get(i), updatedArrayNode.get(i));
-                        arrayNodeToBeUpdated.set(i, mergedNode);
-                    } else {
-                        arrayNodeToBeUpdated.add(updatedArrayNode.get(i));
-                    }
-                }
-                // if the Node is an @ObjectNode
-            } else if (valueToBeUpdated != null && valueToBeUpdated.isObject() && updatedValue != null && !updatedValue.isNull()) {
-                merge(valueToBeUpdated, updatedValue);
-            } else {
-                if (updatedValue != null && !updatedValue.isNull()) {
-                    ((ObjectNode) mainNode).replace(updatedFieldName, updatedValue);
-                }
-                else {
-                    ((ObjectNode) mainNode).remove(updatedFieldName);
-                }
-            }
-        }
-        if (updateNode instanceof TextNode) {
-            return updateNode;
-        }
-        return mainNode;
-    }
 }
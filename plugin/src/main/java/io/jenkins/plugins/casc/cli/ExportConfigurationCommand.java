@@ -3,9 +3,13 @@ package io.jenkins.plugins.casc.cli;
 import hudson.Extension;
 import hudson.cli.CLICommand;
 import io.jenkins.plugins.casc.ConfigurationAsCode;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.ExportPath;
+import io.jenkins.plugins.casc.yaml.ExportFormat;
 import jenkins.model.Jenkins;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.args4j.Option;
 
 /**
  * @author <a href="mailto:nicolas.deloof@gmail.com">Nicolas De Loof</a>
@@ -14,9 +18,15 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 @Restricted(NoExternalUse.class)
 public class ExportConfigurationCommand extends CLICommand {
 
+    @Option(name = "--path", metaVar = "PATH", usage = "Only export this section, for example /jenkins/clouds")
+    public String path;
+
+    @Option(name = "--format", metaVar = "FORMAT", usage = "Export format, yaml (default) or json")
+    public String format;
+
     @Override
     public String getShortDescription() {
-        return "Export jenkins configuration as YAML";
+        return "Export jenkins configuration as YAML or JSON";
     }
 
     @Override
@@ -26,8 +36,20 @@ public class ExportConfigurationCommand extends CLICommand {
             return -1;
         }
 
-
-        ConfigurationAsCode.get().export(stdout);
+        final ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            stderr.println(e.getMessage());
+            return 1;
+        }
+        try {
+            ConfigurationAsCode.get().export(stdout, path != null ? ExportPath.parse(path) : null, exportFormat);
+        } catch (ConfiguratorException e) {
+            if (path == null) throw e;
+            stderr.println(e.getMessage());
+            return 1;
+        }
         return 0;
     }
 }
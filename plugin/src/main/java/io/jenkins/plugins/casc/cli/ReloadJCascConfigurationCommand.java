@@ -2,7 +2,7 @@ package io.jenkins.plugins.casc.cli;
 
 import hudson.Extension;
 import hudson.cli.CLICommand;
-import io.jenkins.plugins.casc.ConfigurationAsCode;
+import io.jenkins.plugins.casc.ReloadQueue;
 import jenkins.model.Jenkins;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -26,7 +26,7 @@ public class ReloadJCascConfigurationCommand extends CLICommand {
             return -1;
         }
 
-        ConfigurationAsCode.get().configure();
+        ReloadQueue.get().reloadAndWait("cli");
         return 0;
     }
 }
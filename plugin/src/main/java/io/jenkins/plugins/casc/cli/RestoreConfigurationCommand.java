@@ -0,0 +1,50 @@
+package io.jenkins.plugins.casc.cli;
+
+import hudson.Extension;
+import hudson.cli.CLICommand;
+import io.jenkins.plugins.casc.auto.BackupHistory;
+import java.io.IOException;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.args4j.Argument;
+
+/**
+ * Lists the revisions of the configuration backup history, or applies one of them.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class RestoreConfigurationCommand extends CLICommand {
+
+    @Argument(metaVar = "REVISION", usage = "Revision to restore, lists revisions when omitted")
+    public Long revision;
+
+    @Override
+    public String getShortDescription() {
+        return "Restore jenkins configuration as of a backup revision";
+    }
+
+    @Override
+    protected int run() throws Exception {
+
+        if (!Jenkins.getInstance().hasPermission(Jenkins.ADMINISTER)) {
+            return -1;
+        }
+
+        final BackupHistory history = BackupHistory.get();
+        if (revision == null) {
+            for (Long r : history.getRevisions()) {
+                stdout.println(r);
+            }
+            return 0;
+        }
+
+        try {
+            history.restore(revision);
+        } catch (IOException e) {
+            stderr.println(e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -2,6 +2,7 @@ package io.jenkins.plugins.casc.impl;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -9,6 +10,7 @@ import hudson.Extension;
 import hudson.ExtensionList;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
+import io.jenkins.plugins.casc.Attribute;
 import io.jenkins.plugins.casc.Configurable;
 import io.jenkins.plugins.casc.Configurator;
 import io.jenkins.plugins.casc.ConfiguratorException;
@@ -26,6 +28,12 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -65,6 +73,8 @@ public class DefaultConfiguratorRegistry implements ConfiguratorRegistry {
     @Override
     @NonNull
     public Configurator lookupOrFail(Type type) throws ConfiguratorException {
+        final Configurator configurator = seeded.get(type);
+        if (configurator != null) return configurator;
         try {
             return cache.get(type);
         } catch (ExecutionException e) {
@@ -80,6 +90,8 @@ public class DefaultConfiguratorRegistry implements ConfiguratorRegistry {
     @Override
     @CheckForNull
     public Configurator lookup(Type type) {
+        final Configurator configurator = seeded.get(type);
+        if (configurator != null) return configurator;
         try {
             return cache.get(type);
         } catch (ExecutionException e) {
@@ -87,8 +99,61 @@ public class DefaultConfiguratorRegistry implements ConfiguratorRegistry {
         }
     }
 
+    /**
+     * @return hit and miss counts of the configurators cache
+     */
+    @NonNull
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return configurators seeded and not released yet, by class
+     */
+    @NonNull
+    public Map<Class, Configurator> getSeeded() {
+        return new HashMap<>(seeded);
+    }
+
+    /**
+     * Register a configurator resolved beforehand, as if it had been looked up for <code>type</code>.
+     * Seeded configurators don't expire, they're kept until {@link #releaseSeeded()}.
+     */
+    public void seed(@NonNull Class type, @NonNull Configurator configurator) {
+        seeded.put(type, configurator);
+    }
+
+    /**
+     * Register the attributes <code>configurator</code> described beforehand, so the apply doesn't describe it again.
+     * Seeded attributes are kept until {@link #releaseSeeded()}.
+     */
+    public void seedAttributes(@NonNull Configurator configurator, @NonNull Set<Attribute> attributes) {
+        seededAttributes.put(configurator, Collections.unmodifiableSet(new LinkedHashSet<>(attributes)));
+    }
+
+    /**
+     * @return attributes seeded for <code>configurator</code> and not released yet, if any
+     */
+    @CheckForNull
+    public Set<Attribute> getSeededAttributes(@NonNull Configurator configurator) {
+        return seededAttributes.get(configurator);
+    }
+
+    /**
+     * Forget seeded configurators and attributes, once the apply they were seeded for is over.
+     */
+    public void releaseSeeded() {
+        seeded.clear();
+        seededAttributes.clear();
+    }
+
+    private final Map<Class, Configurator> seeded = new ConcurrentHashMap<>();
+
+    private final Map<Configurator, Set<Attribute>> seededAttributes = new ConcurrentHashMap<>();
+
     private LoadingCache<Type, Configurator> cache = CacheBuilder.newBuilder()
             .expireAfterAccess(10, TimeUnit.SECONDS)
+            .recordStats()
             .build(new CacheLoader<Type, Configurator>() {
                 @Override
                 public Configurator load(@NonNull Type type) throws Exception {
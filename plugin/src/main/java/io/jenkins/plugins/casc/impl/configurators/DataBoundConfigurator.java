@@ -3,11 +3,13 @@ package io.jenkins.plugins.casc.impl.configurators;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.model.Descriptor;
 import hudson.util.Secret;
+import io.jenkins.plugins.casc.ApplyProfiler;
 import io.jenkins.plugins.casc.Attribute;
 import io.jenkins.plugins.casc.BaseConfigurator;
 import io.jenkins.plugins.casc.ConfigurationContext;
 import io.jenkins.plugins.casc.Configurator;
 import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.ParallelConstruction;
 import io.jenkins.plugins.casc.impl.attributes.DescribableAttribute;
 import io.jenkins.plugins.casc.model.CNode;
 import io.jenkins.plugins.casc.model.Mapping;
@@ -74,7 +76,9 @@ public class DataBoundConfigurator<T> extends BaseConfigurator<T> {
     @Override
     protected T instance(Mapping config, ConfigurationContext context) throws ConfiguratorException {
         final Constructor dataBoundConstructor = getDataBoundConstructor();
-        return tryConstructor((Constructor<T>) dataBoundConstructor, config, context);
+        try (ApplyProfiler.Frame frame = ApplyProfiler.enter(ApplyProfiler.CONSTRUCTOR)) {
+            return tryConstructor((Constructor<T>) dataBoundConstructor, config, context);
+        }
     }
 
     @NonNull
@@ -148,9 +152,8 @@ public class DataBoundConfigurator<T> extends BaseConfigurator<T> {
                             collection = new ArrayList<>();
                         }
 
-                        for (CNode o : value.asSequence()) {
-                            collection.add(lookup.configure(o, context));
-                        }
+                        collection.addAll(ParallelConstruction.build(lookup, value.asSequence(), context,
+                                o -> lookup.configure(o, context)));
                         args[i] = collection;
 
                     } else {
@@ -7,10 +7,14 @@ import io.jenkins.plugins.casc.Attribute;
 import io.jenkins.plugins.casc.BaseConfigurator;
 import io.jenkins.plugins.casc.ConfigurationContext;
 import io.jenkins.plugins.casc.Configurator;
+import io.jenkins.plugins.casc.ParallelExport;
 import io.jenkins.plugins.casc.RootElementConfigurator;
 import io.jenkins.plugins.casc.model.CNode;
 import io.jenkins.plugins.casc.model.Mapping;
 import io.jenkins.plugins.casc.model.Scalar;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -91,27 +95,43 @@ public class GlobalConfigurationCategoryConfigurator extends BaseConfigurator<Gl
 
     @CheckForNull
     @Override
-    public CNode describe(GlobalConfigurationCategory instance, ConfigurationContext context) {
+    public CNode describe(GlobalConfigurationCategory instance, ConfigurationContext context) throws Exception {
 
-        final Mapping mapping = new Mapping();
-        Jenkins.getInstance().getExtensionList(Descriptor.class).stream()
+        final List<Descriptor> descriptors = Jenkins.getInstance().getExtensionList(Descriptor.class).stream()
             .filter(this::filterDescriptors)
-            .forEach(d -> describe(d, mapping, context));
+            .collect(Collectors.toList());
+        final Mapping mapping = new Mapping();
+        // descriptors may be described concurrently, but are added in extension order
+        ParallelExport.forEachOrdered(descriptors, d -> describe(d, context), (d, entry) -> {
+            if (entry.getValue() != null) mapping.put(entry.getKey(), entry.getValue());
+        });
         return mapping;
     }
 
-    private void describe(Descriptor d, Mapping mapping, ConfigurationContext context) {
+    private Map.Entry<String, CNode> describe(Descriptor d, ConfigurationContext context) {
         final DescriptorConfigurator c = new DescriptorConfigurator(d);
         try {
-            final CNode node = c.describe(d, context);
-            if (node != null) mapping.put(c.getName(), node);
+            return new AbstractMap.SimpleEntry<>(c.getName(), context.getExportCache().describe(d, () -> c.describe(d, context)));
         } catch (Exception e) {
             final Scalar scalar = new Scalar(
                 "FAILED TO EXPORT\n" + d.getClass().getName() + " : " + printThrowable(e));
-            mapping.put(c.getName(), scalar);
+            return new AbstractMap.SimpleEntry<>(c.getName(), scalar);
         }
     }
 
+    /**
+     * @return configurator of the descriptor exported as <code>name</code> in this category, if any
+     */
+    @CheckForNull
+    public DescriptorConfigurator lookupDescriptor(String name) {
+        return Jenkins.getInstance().getExtensionList(Descriptor.class).stream()
+            .filter(this::filterDescriptors)
+            .map(DescriptorConfigurator::new)
+            .filter(c -> c.getName().equals(name))
+            .reduce((first, second) -> second) // as exported, latest descriptor wins
+            .orElse(null);
+    }
+
     private boolean filterDescriptors(Descriptor d) {
         if (d.clazz.getName().equals(CREDENTIALS_PROVIDER_MANAGER_CONFIGURATION)) {
             // CREDENTIALS_PROVIDER_MANAGER_CONFIGURATION is located in the wrong category.
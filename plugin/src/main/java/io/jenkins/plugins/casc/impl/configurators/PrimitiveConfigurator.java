@@ -1,5 +1,8 @@
 package io.jenkins.plugins.casc.impl.configurators;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.util.Secret;
@@ -22,6 +25,24 @@ import org.kohsuke.stapler.Stapler;
  */
 @Restricted(NoExternalUse.class)
 public class PrimitiveConfigurator implements Configurator {
+
+    /** Encrypt each secret once, so that exports are stable and cheap, unless disabled. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean CACHE_ENCRYPTED_SECRETS = !Boolean.getBoolean(PrimitiveConfigurator.class.getName() + ".disableSecretCache");
+
+    /**
+     * Encrypted form of exported secrets, by identity. {@link Secret#getEncryptedValue()} uses a random IV, so each
+     * call gives a different, costly to compute, value. Entries go away with their {@link Secret}.
+     */
+    private static final LoadingCache<Secret, String> ENCRYPTED = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Secret, String>() {
+                @Override
+                public String load(Secret secret) {
+                    return secret.getEncryptedValue();
+                }
+            });
+
     private final Class target;
 
     public PrimitiveConfigurator(Class clazz) {
@@ -64,7 +85,7 @@ public class PrimitiveConfigurator implements Configurator {
         }
         if (instance instanceof Secret) {
             // Secrets are sensitive, but they do not need masking since they are exported in the encrypted form
-            return new Scalar(((Secret) instance).getEncryptedValue()).encrypted(true);
+            return new Scalar(encrypt((Secret) instance)).encrypted(true);
         }
         if (target.isEnum()) {
             return new Scalar((Enum) instance);
@@ -73,6 +94,14 @@ public class PrimitiveConfigurator implements Configurator {
         return new Scalar(SecretSourceResolver.encode(String.valueOf(instance)));
     }
 
+    /**
+     * @return encrypted form of a secret, the same for a given {@link Secret} instance unless caching is disabled
+     */
+    @NonNull
+    public static String encrypt(@NonNull Secret secret) {
+        return CACHE_ENCRYPTED_SECRETS ? ENCRYPTED.getUnchecked(secret) : secret.getEncryptedValue();
+    }
+
     @NonNull
     @Override
     public List<Configurator> getConfigurators(ConfigurationContext context) {
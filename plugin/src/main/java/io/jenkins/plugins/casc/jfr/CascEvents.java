@@ -0,0 +1,259 @@
+package io.jenkins.plugins.casc.jfr;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Emits Java Flight Recorder events for Configuration as Code activity, so it shows up on the same timeline as GC,
+ * I/O or lock events.
+ * <p>
+ * The plugin targets Java 8, which doesn't always ship the <code>jdk.jfr</code> API, so events are defined at
+ * runtime through <code>jdk.jfr.EventFactory</code> and accessed reflectively. When the API isn't available, or no
+ * recording is enabling an event type, {@link #begin(Type, String)} returns <code>null</code> after a single check of
+ * the event type state.
+ * <p>
+ * Event subjects only ever carry names (sources, root elements, secret source types, strategies), never configuration
+ * values.
+ */
+@Restricted(NoExternalUse.class)
+public final class CascEvents {
+
+    private static final Logger LOGGER = Logger.getLogger(CascEvents.class.getName());
+
+    private static final String[] CATEGORY = {"Jenkins", "Configuration as Code"};
+
+    /**
+     * Event types, one per stage of the configuration pipeline.
+     */
+    public enum Type {
+        SOURCE_OPEN("SourceOpen", "Source Open", "Open a configuration source", "Source"),
+        PARSE("Parse", "Parse", "Read and parse a YAML configuration source", "Source"),
+        MERGE("Merge", "Merge", "Merge a configuration source into the model", "Strategy"),
+        CHECK("Check", "Check", "Check configuration before it is applied", "Root Elements"),
+        CONFIGURE("Configure", "Configure", "Apply configuration", "Root Elements"),
+        ROOT("RootElement", "Root Element", "Check or apply a root element", "Root Element"),
+        SECRET_REVEAL("SecretReveal", "Secret Reveal", "Lookup a secret from a secret source", "Secret Source"),
+        EXPORT("Export", "Export", "Export configuration as YAML", "Root Elements"),
+        TO_YAML("ToYaml", "To YAML", "Convert exported model into YAML nodes", "Node");
+
+        private final String id;
+        private final String label;
+        private final String description;
+        private final String subject;
+
+        private volatile EventType eventType;
+
+        Type(String name, String label, String description, String subject) {
+            this.id = "io.jenkins.plugins.casc." + name;
+            this.label = label;
+            this.description = description;
+            this.subject = subject;
+        }
+    }
+
+    private static final Support SUPPORT = Support.load();
+
+    private CascEvents() {
+    }
+
+    /**
+     * Begin an event, to be committed by closing it.
+     * @param type event type
+     * @param subject what the event is about, never a configuration value
+     * @return the event, or <code>null</code> if not recorded
+     */
+    @CheckForNull
+    public static Span begin(@NonNull Type type, @CheckForNull String subject) {
+        if (SUPPORT == null) return null;
+        final EventType eventType = SUPPORT.eventType(type);
+        if (eventType == null || !eventType.isEnabled()) return null;
+        return eventType.begin(subject);
+    }
+
+    /**
+     * @return <code>true</code> if the running JVM supports Flight Recorder events
+     */
+    public static boolean isSupported() {
+        return SUPPORT != null;
+    }
+
+    /**
+     * An event in progress.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final EventType type;
+        private final Object event;
+
+        private Span(EventType type, Object event) {
+            this.type = type;
+            this.event = event;
+        }
+
+        /**
+         * End the event and commit it.
+         */
+        @Override
+        public void close() {
+            type.commit(event);
+        }
+    }
+
+    /**
+     * A dynamically defined event type.
+     */
+    private static final class EventType {
+
+        private final Object factory;
+        private final Object jfrType;
+
+        private EventType(Object factory, Object jfrType) {
+            this.factory = factory;
+            this.jfrType = jfrType;
+        }
+
+        boolean isEnabled() {
+            try {
+                return (boolean) SUPPORT.isEnabled.invoke(jfrType);
+            } catch (Throwable t) {
+                return false;
+            }
+        }
+
+        Span begin(String subject) {
+            try {
+                final Object event = SUPPORT.newEvent.invoke(factory);
+                SUPPORT.set.invoke(event, 0, subject);
+                SUPPORT.begin.invoke(event);
+                return new Span(this, event);
+            } catch (Throwable t) {
+                LOGGER.log(Level.FINE, "Failed to begin Flight Recorder event", t);
+                return null;
+            }
+        }
+
+        void commit(Object event) {
+            try {
+                SUPPORT.end.invoke(event);
+                SUPPORT.commit.invoke(event);
+            } catch (Throwable t) {
+                LOGGER.log(Level.FINE, "Failed to commit Flight Recorder event", t);
+            }
+        }
+    }
+
+    /**
+     * Reflective access to the <code>jdk.jfr</code> API.
+     */
+    private static final class Support {
+
+        private final Method create;
+        private final Constructor<?> annotationElement;
+        private final Constructor<?> valueDescriptor;
+        private final Class<? extends Annotation> nameAnnotation;
+        private final Class<? extends Annotation> labelAnnotation;
+        private final Class<? extends Annotation> descriptionAnnotation;
+        private final Class<? extends Annotation> categoryAnnotation;
+        private final Class<? extends Annotation> stackTraceAnnotation;
+
+        private final MethodHandle getEventType;
+        private final MethodHandle isEnabled;
+        private final MethodHandle newEvent;
+        private final MethodHandle set;
+        private final MethodHandle begin;
+        private final MethodHandle end;
+        private final MethodHandle commit;
+
+        private Support() throws ReflectiveOperationException {
+            final ClassLoader loader = ClassLoader.getSystemClassLoader();
+            final Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory", false, loader);
+            final Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement", false, loader);
+            final Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor", false, loader);
+            final Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType", false, loader);
+            final Class<?> eventClass = Class.forName("jdk.jfr.Event", false, loader);
+
+            create = factoryClass.getMethod("create", List.class, List.class);
+            annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+            nameAnnotation = annotation("jdk.jfr.Name", loader);
+            labelAnnotation = annotation("jdk.jfr.Label", loader);
+            descriptionAnnotation = annotation("jdk.jfr.Description", loader);
+            categoryAnnotation = annotation("jdk.jfr.Category", loader);
+            stackTraceAnnotation = annotation("jdk.jfr.StackTrace", loader);
+
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            getEventType = lookup.unreflect(factoryClass.getMethod("getEventType"));
+            isEnabled = lookup.unreflect(eventTypeClass.getMethod("isEnabled"));
+            newEvent = lookup.unreflect(factoryClass.getMethod("newEvent"));
+            set = lookup.unreflect(eventClass.getMethod("set", int.class, Object.class));
+            begin = lookup.unreflect(eventClass.getMethod("begin"));
+            end = lookup.unreflect(eventClass.getMethod("end"));
+            commit = lookup.unreflect(eventClass.getMethod("commit"));
+        }
+
+        @CheckForNull
+        static Support load() {
+            try {
+                return new Support();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOGGER.log(Level.FINE, "Java Flight Recorder API isn't available, events are disabled", e);
+                return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<? extends Annotation> annotation(String name, ClassLoader loader) throws ClassNotFoundException {
+            return (Class<? extends Annotation>) Class.forName(name, false, loader);
+        }
+
+        /**
+         * Lazily define the event type, so JFR isn't initialized unless some event is about to be emitted.
+         */
+        @CheckForNull
+        EventType eventType(Type type) {
+            EventType eventType = type.eventType;
+            if (eventType == null) {
+                synchronized (type) {
+                    eventType = type.eventType;
+                    if (eventType == null) {
+                        eventType = define(type);
+                        type.eventType = eventType;
+                    }
+                }
+            }
+            return eventType.factory != null ? eventType : null;
+        }
+
+        private EventType define(Type type) {
+            try {
+                final List<Object> annotations = Arrays.asList(
+                        annotationElement.newInstance(nameAnnotation, type.id),
+                        annotationElement.newInstance(labelAnnotation, type.label),
+                        annotationElement.newInstance(descriptionAnnotation, type.description),
+                        annotationElement.newInstance(categoryAnnotation, CATEGORY),
+                        annotationElement.newInstance(stackTraceAnnotation, false));
+                final List<Object> fields = new ArrayList<>();
+                fields.add(valueDescriptor.newInstance(String.class, "subject", Collections.singletonList(
+                        annotationElement.newInstance(labelAnnotation, type.subject))));
+                final Object factory = create.invoke(null, annotations, fields);
+                return new EventType(factory, getEventType.invoke(factory));
+            } catch (Throwable t) {
+                LOGGER.log(Level.WARNING, "Failed to define Flight Recorder event " + type.id, t);
+                return new EventType(null, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.jenkins.plugins.casc.yaml;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.model.CNode;
+import java.io.IOException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Writes exported configuration in some {@link ExportFormat}, one root element at a time.
+ */
+@Restricted(NoExternalUse.class)
+public interface ConfigurationWriter {
+
+    /**
+     * Start the document and its top level mapping.
+     */
+    void start() throws IOException;
+
+    /**
+     * Write an entry of the top level mapping, unless <code>value</code> is empty.
+     */
+    void write(@NonNull String key, @CheckForNull CNode value) throws IOException, ConfiguratorException;
+
+    /**
+     * End the top level mapping and the document, and flush the writer.
+     */
+    void end() throws IOException;
+}
@@ -0,0 +1,42 @@
+package io.jenkins.plugins.casc.yaml;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Counts characters read from a YAML source.
+ */
+class CountingReader extends FilterReader {
+
+    private long count;
+
+    CountingReader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int c = super.read();
+        if (c >= 0) count++;
+        return c;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        final int n = super.read(cbuf, off, len);
+        if (n > 0) count += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        final long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,70 @@
+package io.jenkins.plugins.casc.yaml;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.Writer;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Formats configuration can be exported as.
+ */
+@Restricted(NoExternalUse.class)
+public enum ExportFormat {
+
+    YAML("application/x-yaml", "yaml") {
+        @Override
+        public ConfigurationWriter open(Writer writer) {
+            return new ExportWriter(writer);
+        }
+    },
+
+    JSON("application/json", "json") {
+        @Override
+        public ConfigurationWriter open(Writer writer) throws IOException {
+            return new JsonExportWriter(writer);
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    @NonNull
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return extension of an exported file, without the dot
+     */
+    @NonNull
+    public String getExtension() {
+        return extension;
+    }
+
+    @NonNull
+    public abstract ConfigurationWriter open(@NonNull Writer writer) throws IOException;
+
+    /**
+     * @return format named <code>name</code>, case insensitive, or {@link #YAML} if <code>null</code> or empty
+     * @throws IllegalArgumentException if there's no such format
+     */
+    @NonNull
+    public static ExportFormat of(@CheckForNull String name) {
+        if (name == null || name.isEmpty()) {
+            return YAML;
+        }
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name) || format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format '" + name + "', expected yaml or json");
+    }
+}
@@ -0,0 +1,196 @@
+package io.jenkins.plugins.casc.yaml;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Scalar;
+import io.jenkins.plugins.casc.model.Sequence;
+import io.jenkins.plugins.casc.snakeyaml.DumperOptions;
+import io.jenkins.plugins.casc.snakeyaml.emitter.Emitter;
+import io.jenkins.plugins.casc.snakeyaml.events.DocumentEndEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.DocumentStartEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.ImplicitTuple;
+import io.jenkins.plugins.casc.snakeyaml.events.MappingEndEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.MappingStartEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.ScalarEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.SequenceEndEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.SequenceStartEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.StreamEndEvent;
+import io.jenkins.plugins.casc.snakeyaml.events.StreamStartEvent;
+import io.jenkins.plugins.casc.snakeyaml.nodes.NodeId;
+import io.jenkins.plugins.casc.snakeyaml.nodes.Tag;
+import io.jenkins.plugins.casc.snakeyaml.resolver.Resolver;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.FlowStyle.BLOCK;
+import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.ScalarStyle.DOUBLE_QUOTED;
+import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.ScalarStyle.LITERAL;
+import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.ScalarStyle.PLAIN;
+
+/**
+ * Writes exported configuration as YAML emitter events, one root element at a time.
+ * <p>
+ * Output is the same as serializing the snakeyaml node tree built by
+ * {@link io.jenkins.plugins.casc.ConfigurationAsCode#toYaml(CNode)}: mapping keys are sorted, and empty scalars,
+ * mappings and sequences are pruned. But no intermediate tree is built, so memory only depends on the size of the
+ * root element being written.
+ */
+@Restricted(NoExternalUse.class)
+public final class ExportWriter implements ConfigurationWriter {
+
+    private final Emitter emitter;
+    private final DumperOptions options = options();
+    private final Resolver resolver = new Resolver();
+
+    public ExportWriter(@NonNull Writer writer) {
+        this.emitter = new Emitter(writer, options);
+    }
+
+    /**
+     * @return options used to serialize exported configuration
+     */
+    @NonNull
+    public static DumperOptions options() {
+        final DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(BLOCK);
+        options.setDefaultScalarStyle(PLAIN);
+        options.setSplitLines(true);
+        options.setPrettyFlow(true);
+        return options;
+    }
+
+    /**
+     * Start the document and its top level mapping.
+     */
+    @Override
+    public void start() throws IOException {
+        emitter.emit(new StreamStartEvent(null, null));
+        emitter.emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(), options.getTags()));
+        emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, BLOCK));
+    }
+
+    /**
+     * Write an entry of the top level mapping, unless <code>value</code> is empty.
+     */
+    @Override
+    public void write(@NonNull String key, @CheckForNull CNode value) throws IOException, ConfiguratorException {
+        if (isEmpty(value)) return;
+        emitter.emit(scalar(Tag.STR, key, PLAIN));
+        emit(value);
+    }
+
+    /**
+     * End the top level mapping and the document, and flush the writer.
+     */
+    @Override
+    public void end() throws IOException {
+        emitter.emit(new MappingEndEvent(null, null));
+        emitter.emit(new DocumentEndEvent(null, null, options.isExplicitEnd()));
+        emitter.emit(new StreamEndEvent(null, null));
+    }
+
+    private void emit(CNode node) throws IOException, ConfiguratorException {
+        switch (node.getType()) {
+            case MAPPING:
+                emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, BLOCK));
+                for (Map.Entry<String, CNode> entry : sorted(node.asMapping())) {
+                    if (isEmpty(entry.getValue())) continue;
+                    emitter.emit(scalar(Tag.STR, entry.getKey(), PLAIN));
+                    emit(entry.getValue());
+                }
+                emitter.emit(new MappingEndEvent(null, null));
+                break;
+            case SEQUENCE:
+                emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, BLOCK));
+                for (CNode element : node.asSequence()) {
+                    if (isEmpty(element)) continue;
+                    emit(element);
+                }
+                emitter.emit(new SequenceEndEvent(null, null));
+                break;
+            case SCALAR:
+            default:
+                final Scalar scalar = node.asScalar();
+                emitter.emit(scalar(tag(scalar.getFormat()), scalar.getValue(), style(scalar)));
+        }
+    }
+
+    private ScalarEvent scalar(Tag tag, String value, DumperOptions.ScalarStyle style) {
+        // same implicit resolution as snakeyaml Serializer
+        final ImplicitTuple implicit = new ImplicitTuple(
+                tag.equals(resolver.resolve(NodeId.scalar, value, true)),
+                tag.equals(resolver.resolve(NodeId.scalar, value, false)));
+        return new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style);
+    }
+
+    static List<Map.Entry<String, CNode>> sorted(Mapping mapping) {
+        final List<Map.Entry<String, CNode>> entries = new ArrayList<>(mapping.entrySet());
+        entries.sort(Comparator.comparing(Map.Entry::getKey));
+        return entries;
+    }
+
+    /**
+     * Check whether a node would be pruned from export: <code>null</code>, empty scalar, or a mapping or sequence with
+     * no non-empty child.
+     */
+    public static boolean isEmpty(@CheckForNull CNode node) throws ConfiguratorException {
+        if (node == null) return true;
+        switch (node.getType()) {
+            case MAPPING:
+                for (CNode child : node.asMapping().values()) {
+                    if (!isEmpty(child)) return false;
+                }
+                return true;
+            case SEQUENCE:
+                for (CNode child : node.asSequence()) {
+                    if (!isEmpty(child)) return false;
+                }
+                return true;
+            case SCALAR:
+            default:
+                final String value = node.asScalar().getValue();
+                return value == null || value.length() == 0;
+        }
+    }
+
+    /**
+     * @return YAML tag for a scalar format
+     */
+    @NonNull
+    public static Tag tag(@NonNull Scalar.Format format) {
+        switch (format) {
+            case NUMBER:
+                return Tag.INT;
+            case FLOATING:
+                return Tag.FLOAT;
+            case BOOLEAN:
+                return Tag.BOOL;
+            case STRING:
+            case MULTILINESTRING:
+            default:
+                return Tag.STR;
+        }
+    }
+
+    /**
+     * @return YAML style for an exported scalar
+     */
+    @NonNull
+    public static DumperOptions.ScalarStyle style(@NonNull Scalar scalar) {
+        if (scalar.getFormat().equals(Scalar.Format.MULTILINESTRING) && !scalar.isRaw()) {
+            return LITERAL;
+        } else if (scalar.isRaw()) {
+            return PLAIN;
+        }
+        return DOUBLE_QUOTED;
+    }
+}
@@ -0,0 +1,247 @@
+package io.jenkins.plugins.casc.yaml;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import hudson.init.InitMilestone;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * On-disk cache for configuration sources served over http(s).
+ * <p>
+ * Downloaded sources are kept under <code>JENKINS_HOME/casc-http-cache</code> with their <code>ETag</code> and
+ * <code>Last-Modified</code> validators, so following reloads only issue conditional requests and reuse the cached
+ * copy on <code>304 Not Modified</code>. Requests use connect and read timeouts and accept gzip encoding. When the
+ * remote server can't be reached or answers with a server error while Jenkins is starting, the last good copy is used
+ * so Jenkins can still start. Client errors, such as <code>404</code> or <code>403</code>, are always reported.
+ */
+@Restricted(NoExternalUse.class)
+public class HttpSourceCache {
+
+    private static final Logger LOGGER = Logger.getLogger(HttpSourceCache.class.getName());
+
+    private static final String PREFIX = HttpSourceCache.class.getName();
+
+    /** Disable the cache, sources are then downloaded on every read. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean DISABLED = Boolean.getBoolean(PREFIX + ".disabled");
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int CONNECT_TIMEOUT_MILLIS = Integer.getInteger(PREFIX + ".connectTimeoutMillis", 10_000);
+
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int READ_TIMEOUT_MILLIS = Integer.getInteger(PREFIX + ".readTimeoutMillis", 30_000);
+
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "last-modified";
+    private static final String URL_KEY = "url";
+
+    private final File directory;
+
+    public HttpSourceCache(@NonNull File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return cache under <code>JENKINS_HOME</code>, or <code>null</code> if disabled or Jenkins isn't running
+     */
+    @CheckForNull
+    public static HttpSourceCache get() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (DISABLED || jenkins == null) return null;
+        return new HttpSourceCache(new File(jenkins.getRootDir(), "casc-http-cache"));
+    }
+
+    public static boolean isHttp(@NonNull String url) {
+        final String scheme = URI.create(url).getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    /**
+     * Open a configuration source from URL, through the cache.
+     * The last good copy is used if the server can't be reached while Jenkins is starting.
+     */
+    @NonNull
+    public Reader open(@NonNull String url) throws IOException {
+        return new InputStreamReader(new ByteArrayInputStream(fetch(url, isStarting())), UTF_8);
+    }
+
+    static boolean isStarting() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        return jenkins != null && jenkins.getInitLevel() != InitMilestone.COMPLETED;
+    }
+
+    /**
+     * Get content of <code>url</code>, revalidating the cached copy if any.
+     *
+     * @param allowStale use cached copy if the server can't be reached
+     */
+    @NonNull
+    public byte[] fetch(@NonNull String url, boolean allowStale) throws IOException {
+        final String key = Util.getDigestOf(url);
+        final Path content = new File(directory, key + ".yaml").toPath();
+        final Path metadata = new File(directory, key + ".properties").toPath();
+        final Properties validators = Files.exists(content) ? load(metadata) : new Properties();
+
+        final long start = System.nanoTime();
+        try {
+            final HttpURLConnection connection = open(new URL(url), validators);
+            try {
+                final int status = connection.getResponseCode();
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED && Files.exists(content)) {
+                    LOGGER.log(Level.FINE, "{0} not modified ({1}ms)", new Object[]{url, millis(start)});
+                    return Files.readAllBytes(content);
+                }
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new HttpStatusException(url, status);
+                }
+                final byte[] body = read(connection);
+                store(url, connection, body, content, metadata);
+                LOGGER.log(Level.FINE, "{0} downloaded, {1} bytes ({2}ms)", new Object[]{url, body.length, millis(start)});
+                return body;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            if (allowStale && isTransient(e) && Files.exists(content)) {
+                LOGGER.log(Level.WARNING, "Failed to fetch " + url + ", using last cached copy", e);
+                return Files.readAllBytes(content);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return last good copy of <code>url</code>, or <code>null</code> if it was never fetched
+     */
+    @CheckForNull
+    public byte[] cached(@NonNull String url) throws IOException {
+        final Path content = new File(directory, Util.getDigestOf(url) + ".yaml").toPath();
+        return Files.exists(content) ? Files.readAllBytes(content) : null;
+    }
+
+    /**
+     * Failures which may go away, and for which a cached copy may stand in: I/O errors and server errors.
+     * Client errors, such as a removed source or missing credentials, are not.
+     */
+    static boolean isTransient(@NonNull IOException e) {
+        if (e instanceof HttpStatusException) {
+            return ((HttpStatusException) e).getStatus() >= 500;
+        }
+        return true;
+    }
+
+    private static HttpURLConnection open(URL url, Properties validators) throws IOException {
+        final URLConnection connection = url.openConnection();
+        if (!(connection instanceof HttpURLConnection)) {
+            throw new IOException(url + " isn't an http(s) URL");
+        }
+        final HttpURLConnection http = (HttpURLConnection) connection;
+        http.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        http.setReadTimeout(READ_TIMEOUT_MILLIS);
+        http.setRequestProperty("Accept-Encoding", "gzip");
+        final String etag = validators.getProperty(ETAG);
+        if (etag != null) {
+            http.setRequestProperty("If-None-Match", etag);
+        }
+        final String lastModified = validators.getProperty(LAST_MODIFIED);
+        if (lastModified != null) {
+            http.setRequestProperty("If-Modified-Since", lastModified);
+        }
+        return http;
+    }
+
+    private static byte[] read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+                try (InputStream gzip = new GZIPInputStream(in)) {
+                    return IOUtils.toByteArray(gzip);
+                }
+            }
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private void store(String url, HttpURLConnection connection, byte[] body, Path content, Path metadata) {
+        try {
+            Files.createDirectories(directory.toPath());
+            final Properties validators = new Properties();
+            validators.setProperty(URL_KEY, url);
+            final String etag = connection.getHeaderField("ETag");
+            if (etag != null) validators.setProperty(ETAG, etag);
+            final String lastModified = connection.getHeaderField("Last-Modified");
+            if (lastModified != null) validators.setProperty(LAST_MODIFIED, lastModified);
+
+            replace(content, body);
+            final Path tmp = Files.createTempFile(directory.toPath(), "validators", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                validators.store(out, null);
+            }
+            Files.move(tmp, metadata, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to cache " + url, e);
+        }
+    }
+
+    private void replace(Path target, byte[] body) throws IOException {
+        final Path tmp = Files.createTempFile(directory.toPath(), "content", ".tmp");
+        Files.write(tmp, body);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Properties load(Path metadata) {
+        final Properties validators = new Properties();
+        if (Files.exists(metadata)) {
+            try (InputStream in = Files.newInputStream(metadata)) {
+                validators.load(in);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to read " + metadata, e);
+            }
+        }
+        return validators;
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Server answered a configuration source request with an unexpected HTTP status.
+     */
+    public static final class HttpStatusException extends IOException {
+
+        private final int status;
+
+        public HttpStatusException(@NonNull String url, int status) {
+            super("Failed to fetch " + url + ": HTTP " + status);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+}
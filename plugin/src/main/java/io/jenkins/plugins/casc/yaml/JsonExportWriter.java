@@ -0,0 +1,102 @@
+package io.jenkins.plugins.casc.yaml;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Scalar;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Writes exported configuration as JSON, one root element at a time.
+ * <p>
+ * Content is the same as the YAML export: mapping keys are sorted, empty values are pruned, and secrets are
+ * exported as described. Numbers and booleans are written as such when their value is a valid JSON literal,
+ * everything else as a string.
+ */
+@Restricted(NoExternalUse.class)
+public final class JsonExportWriter implements ConfigurationWriter {
+
+    private static final JsonFactory FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9]\\d*)(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    private final JsonGenerator generator;
+
+    public JsonExportWriter(@NonNull Writer writer) throws IOException {
+        this.generator = FACTORY.createGenerator(writer).useDefaultPrettyPrinter();
+    }
+
+    @Override
+    public void start() throws IOException {
+        generator.writeStartObject();
+    }
+
+    @Override
+    public void write(@NonNull String key, @CheckForNull CNode value) throws IOException, ConfiguratorException {
+        if (ExportWriter.isEmpty(value)) return;
+        generator.writeFieldName(key);
+        write(value);
+    }
+
+    @Override
+    public void end() throws IOException {
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    private void write(CNode node) throws IOException, ConfiguratorException {
+        switch (node.getType()) {
+            case MAPPING:
+                generator.writeStartObject();
+                for (Map.Entry<String, CNode> entry : ExportWriter.sorted(node.asMapping())) {
+                    if (ExportWriter.isEmpty(entry.getValue())) continue;
+                    generator.writeFieldName(entry.getKey());
+                    write(entry.getValue());
+                }
+                generator.writeEndObject();
+                break;
+            case SEQUENCE:
+                generator.writeStartArray();
+                for (CNode element : node.asSequence()) {
+                    if (ExportWriter.isEmpty(element)) continue;
+                    write(element);
+                }
+                generator.writeEndArray();
+                break;
+            case SCALAR:
+            default:
+                write(node.asScalar());
+        }
+    }
+
+    private void write(Scalar scalar) throws IOException {
+        final String value = scalar.getValue();
+        switch (scalar.getFormat()) {
+            case NUMBER:
+            case FLOATING:
+                if (NUMBER.matcher(value).matches()) {
+                    generator.writeNumber(value);
+                    return;
+                }
+                break;
+            case BOOLEAN:
+                if (value.equals("true") || value.equals("false")) {
+                    generator.writeBoolean(Boolean.parseBoolean(value));
+                    return;
+                }
+                break;
+            default:
+        }
+        generator.writeString(value);
+    }
+}
@@ -0,0 +1,340 @@
+package io.jenkins.plugins.casc.yaml;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Scalar;
+import io.jenkins.plugins.casc.model.Sequence;
+import io.jenkins.plugins.casc.model.Source;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Binary snapshot of the merged configuration model, so unchanged sources don't have to be parsed and merged again.
+ * <p>
+ * The snapshot is stored as <code>JENKINS_HOME/casc-model.snapshot</code> and keyed by a SHA-256 digest of the merge
+ * strategy name and of each source name and content: sources are still read, but only parsed when the digest
+ * doesn't match. It holds a table of distinct strings (keys, values, source names) followed by the node tree, with
+ * the {@link Source} of each node. The model is captured as parsed, before any secret is resolved, so only
+ * <code>${...}</code> templates are written.
+ * <p>
+ * How loading a snapshot compares with parsing sources hasn't been measured yet, see
+ * <code>ModelSnapshotBenchmark</code> in the test harness, so snapshots are only used when
+ * <code>io.jenkins.plugins.casc.yaml.ModelSnapshot.enabled</code> is set.
+ */
+@Restricted(NoExternalUse.class)
+public final class ModelSnapshot {
+
+    private static final Logger LOGGER = Logger.getLogger(ModelSnapshot.class.getName());
+
+    /** Use the snapshot on startup and reload, opt-in until it's shown to beat parsing. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static boolean ENABLED = Boolean.getBoolean(ModelSnapshot.class.getName() + ".enabled");
+
+    private static final int MAGIC = 0x43617343; // CasC
+    private static final int VERSION = 1;
+
+    private static final byte MAPPING = 'M';
+    private static final byte SEQUENCE = 'S';
+    private static final byte SCALAR = 'V';
+    private static final byte NULL = 'N';
+
+    private final File file;
+
+    public ModelSnapshot(@NonNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return snapshot under <code>JENKINS_HOME</code>, or <code>null</code> if not enabled or Jenkins isn't running
+     */
+    @CheckForNull
+    public static ModelSnapshot get() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (!ENABLED || jenkins == null) return null;
+        return new ModelSnapshot(new File(jenkins.getRootDir(), "casc-model.snapshot"));
+    }
+
+    /**
+     * Load configuration model from sources, as {@link YamlUtils#loadFrom(List, MergeStrategy)} does, through the
+     * snapshot when available.
+     */
+    @NonNull
+    public static Mapping loadFrom(@NonNull List<YamlSource> sources, @NonNull MergeStrategy mergeStrategy)
+            throws ConfiguratorException {
+        final ModelSnapshot snapshot = sources.isEmpty() ? null : get();
+        if (snapshot == null) {
+            return YamlUtils.loadFrom(sources, mergeStrategy);
+        }
+        return snapshot.load(sources, mergeStrategy);
+    }
+
+    /**
+     * Load configuration model from sources, from snapshot if sources haven't changed since it was written,
+     * otherwise parsing sources and writing a new snapshot.
+     */
+    @NonNull
+    public Mapping load(@NonNull List<YamlSource> sources, @NonNull MergeStrategy mergeStrategy)
+            throws ConfiguratorException {
+        final List<YamlSource> buffered = new ArrayList<>(sources.size());
+        final MessageDigest digest = sha256();
+        update(digest, mergeStrategy.getName());
+        for (YamlSource source : RemoteSources.prefetch(sources)) {
+            final String content;
+            try (Reader reader = source.read()) {
+                content = IOUtils.toString(reader);
+            } catch (IOException e) {
+                throw new ConfiguratorException("Failed to read " + source, e);
+            }
+            update(digest, source.source());
+            update(digest, content);
+            buffered.add(new YamlSource<>(source.source(), s -> new StringReader(content)));
+        }
+        final String key = Util.toHexString(digest.digest());
+
+        final long start = System.nanoTime();
+        try {
+            final Mapping model = read(key);
+            if (model != null) {
+                LOGGER.log(Level.FINE, "Configuration model loaded from snapshot in {0}ms",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return model;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to read configuration model snapshot " + file + ", parsing sources", e);
+        }
+
+        final Mapping model = YamlUtils.loadFrom(buffered, mergeStrategy);
+        try {
+            write(key, model);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write configuration model snapshot " + file, e);
+        }
+        return model;
+    }
+
+    /**
+     * @return model from snapshot, or <code>null</code> if there's no snapshot or it was written for another digest
+     */
+    @CheckForNull
+    Mapping read(@NonNull String digest) throws IOException {
+        if (!file.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION || !digest.equals(readString(in))) {
+                return null;
+            }
+            final String[] strings = new String[readVarInt(in)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(in);
+            }
+            return (Mapping) readNode(in, strings);
+        }
+    }
+
+    /**
+     * Replace the snapshot with <code>model</code>.
+     */
+    void write(@NonNull String digest, @NonNull Mapping model) throws IOException {
+        final Map<String, Integer> table = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        index(model, table, strings);
+
+        final Path target = file.toPath();
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        final Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), "casc-model", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                writeString(out, digest);
+                writeVarInt(out, strings.size());
+                for (String s : strings) {
+                    writeString(out, s);
+                }
+                writeNode(out, model, table);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void index(CNode node, Map<String, Integer> table, List<String> strings) {
+        if (node == null) return;
+        final Source source = node.getSource();
+        if (source != null) intern(source.file, table, strings);
+        if (node instanceof Mapping) {
+            for (Map.Entry<String, CNode> entry : ((Mapping) node).entrySet()) {
+                intern(entry.getKey(), table, strings);
+                index(entry.getValue(), table, strings);
+            }
+        } else if (node instanceof Sequence) {
+            for (CNode element : (Sequence) node) {
+                index(element, table, strings);
+            }
+        } else {
+            final Scalar scalar = (Scalar) node;
+            if (scalar.isSensitiveData()) {
+                // only parsed models are snapshotted, which never hold revealed secrets
+                throw new IllegalArgumentException("Refusing to snapshot sensitive data");
+            }
+            intern(scalar.toString(), table, strings);
+        }
+    }
+
+    private static void intern(String s, Map<String, Integer> table, List<String> strings) {
+        if (s != null && !table.containsKey(s)) {
+            table.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+
+    private static void writeNode(DataOutputStream out, CNode node, Map<String, Integer> table) throws IOException {
+        if (node == null) {
+            out.writeByte(NULL);
+        } else if (node instanceof Mapping) {
+            final Mapping mapping = (Mapping) node;
+            out.writeByte(MAPPING);
+            writeSource(out, node.getSource(), table);
+            writeVarInt(out, mapping.size());
+            for (Map.Entry<String, CNode> entry : mapping.entrySet()) {
+                writeVarInt(out, table.get(entry.getKey()));
+                writeNode(out, entry.getValue(), table);
+            }
+        } else if (node instanceof Sequence) {
+            final Sequence sequence = (Sequence) node;
+            out.writeByte(SEQUENCE);
+            writeSource(out, node.getSource(), table);
+            writeVarInt(out, sequence.size());
+            for (CNode element : sequence) {
+                writeNode(out, element, table);
+            }
+        } else {
+            out.writeByte(SCALAR);
+            writeSource(out, node.getSource(), table);
+            writeVarInt(out, table.get(node.toString()));
+        }
+    }
+
+    private static CNode readNode(DataInputStream in, String[] strings) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case MAPPING: {
+                final Source source = readSource(in, strings);
+                final int size = readVarInt(in);
+                final Mapping mapping = new Mapping(size);
+                mapping.setSource(source);
+                for (int i = 0; i < size; i++) {
+                    final String key = strings[readVarInt(in)];
+                    mapping.put(key, readNode(in, strings));
+                }
+                return mapping;
+            }
+            case SEQUENCE: {
+                final Source source = readSource(in, strings);
+                final int size = readVarInt(in);
+                final Sequence sequence = new Sequence(size);
+                sequence.setSource(source);
+                for (int i = 0; i < size; i++) {
+                    sequence.add(readNode(in, strings));
+                }
+                return sequence;
+            }
+            case SCALAR: {
+                final Source source = readSource(in, strings);
+                return new Scalar(strings[readVarInt(in)], source);
+            }
+            default:
+                throw new IOException("Unexpected node type " + type);
+        }
+    }
+
+    private static void writeSource(DataOutputStream out, Source source, Map<String, Integer> table) throws IOException {
+        if (source == null || source.file == null) {
+            writeVarInt(out, 0);
+        } else {
+            writeVarInt(out, table.get(source.file) + 1);
+            writeVarInt(out, source.line);
+        }
+    }
+
+    private static Source readSource(DataInputStream in, String[] strings) throws IOException {
+        final int file = readVarInt(in);
+        if (file == 0) return null;
+        return new Source(strings[file - 1], readVarInt(in));
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        final byte[] bytes = s.getBytes(UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed snapshot");
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        final byte[] bytes = s.getBytes(UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.jenkins.plugins.casc.yaml;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.casc.CascMetrics;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fetches remote configuration sources concurrently, before they're merged.
+ * <p>
+ * Each http(s) source is downloaded on a bounded pool, retried on I/O failures and server errors, and replaced by an
+ * in-memory source which keeps the URL as its name, so merge order, error messages and source locations are unchanged.
+ * Client errors, such as a missing source, fail immediately. While Jenkins is starting, the last cached copy of a
+ * source is only used once its retries are exhausted.
+ */
+@Restricted(NoExternalUse.class)
+public final class RemoteSources {
+
+    private static final Logger LOGGER = Logger.getLogger(RemoteSources.class.getName());
+
+    private static final String PREFIX = RemoteSources.class.getName();
+
+    /** Maximum number of sources fetched concurrently. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int PARALLELISM = Integer.getInteger(PREFIX + ".parallelism", 4);
+
+    /** Number of retries after a fetch failed with an I/O error or a 5xx response. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static int RETRIES = Integer.getInteger(PREFIX + ".retries", 2);
+
+    /** Delay before the first retry, doubled on each following one. */
+    @SuppressWarnings("FieldMayBeFinal") // non-final for script console
+    public static long RETRY_DELAY_MILLIS = Long.getLong(PREFIX + ".retryDelayMillis", 500);
+
+    private RemoteSources() {
+    }
+
+    /**
+     * Fetch remote sources from <code>sources</code>.
+     *
+     * @return sources in the same order, remote ones being replaced by their fetched content
+     * @throws ConfiguratorException if a remote source can't be fetched, the first one in source order
+     */
+    @NonNull
+    public static List<YamlSource> prefetch(@NonNull List<YamlSource> sources) throws ConfiguratorException {
+        final List<Integer> remote = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            if (isRemote(sources.get(i))) remote.add(i);
+        }
+        if (remote.isEmpty()) return sources;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(PARALLELISM, remote.size())),
+                new NamingThreadFactory(new DaemonThreadFactory(), "CasC remote sources"));
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i : remote) {
+                final String url = (String) sources.get(i).source;
+                futures.add(executor.submit(() -> fetch(url)));
+            }
+            final List<YamlSource> result = new ArrayList<>(sources);
+            for (int i = 0; i < remote.size(); i++) {
+                final YamlSource source = sources.get(remote.get(i));
+                try {
+                    result.set(remote.get(i), fetched((String) source.source, futures.get(i).get()));
+                } catch (ExecutionException e) {
+                    throw new ConfiguratorException("Failed to read " + source, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ConfiguratorException("Interrupted while reading " + source, e);
+                }
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isRemote(YamlSource source) {
+        return source.reader == YamlSource.READ_FROM_URL && source.source instanceof String
+                && HttpSourceCache.isHttp((String) source.source);
+    }
+
+    static String fetch(String url) throws IOException, InterruptedException {
+        return fetch(url, HttpSourceCache.get(), HttpSourceCache.isStarting());
+    }
+
+    /**
+     * @param cache cache to revalidate, if any
+     * @param allowStale use the cached copy once retries are exhausted
+     */
+    static String fetch(String url, @CheckForNull HttpSourceCache cache, boolean allowStale)
+            throws IOException, InterruptedException {
+        long delay = RETRY_DELAY_MILLIS;
+        for (int attempt = 0; ; attempt++) {
+            final long start = System.nanoTime();
+            try {
+                final String content = read(url, cache);
+                final long nanos = System.nanoTime() - start;
+                CascMetrics.get().recordFetch(url, nanos);
+                LOGGER.log(Level.FINE, "Fetched {0} in {1}ms", new Object[]{url, TimeUnit.NANOSECONDS.toMillis(nanos)});
+                return content;
+            } catch (IOException e) {
+                if (!isRetryable(e)) throw e;
+                if (attempt >= RETRIES) {
+                    final byte[] stale = allowStale && cache != null ? cache.cached(url) : null;
+                    if (stale == null) throw e;
+                    LOGGER.log(Level.WARNING, "Failed to fetch " + url + ", using last cached copy", e);
+                    return new String(stale, UTF_8);
+                }
+                LOGGER.log(Level.FINE, "Failed to fetch " + url + ", retrying in " + delay + "ms", e);
+                Thread.sleep(delay);
+                delay *= 2;
+            }
+        }
+    }
+
+    private static String read(String url, @CheckForNull HttpSourceCache cache) throws IOException {
+        if (cache != null) {
+            // the cached copy only stands in once retries are exhausted
+            return new String(cache.fetch(url, false), UTF_8);
+        }
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setConnectTimeout(HttpSourceCache.CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(HttpSourceCache.READ_TIMEOUT_MILLIS);
+            final int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new HttpSourceCache.HttpStatusException(url, status);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return IOUtils.toString(in, UTF_8);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Only failures which may go away are retried: I/O errors and server errors, not client errors such as 404.
+     */
+    private static boolean isRetryable(IOException e) {
+        if (e instanceof HttpSourceCache.HttpStatusException) {
+            return ((HttpSourceCache.HttpStatusException) e).getStatus() >= 500;
+        }
+        return !(e instanceof FileNotFoundException);
+    }
+
+    private static YamlSource<String> fetched(String url, String content) {
+        return new YamlSource<>(url, u -> new StringReader(content));
+    }
+}
@@ -2,6 +2,7 @@ package io.jenkins.plugins.casc.yaml;
 
 import io.jenkins.plugins.casc.snakeyaml.reader.StreamReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Field;
 
 /**
@@ -11,7 +12,11 @@ import java.lang.reflect.Field;
 class StreamReaderWithSource extends StreamReader {
 
     public StreamReaderWithSource(YamlSource source) throws IOException {
-        super(source.read());
+        this(source, source.read());
+    }
+
+    StreamReaderWithSource(YamlSource source, Reader reader) {
+        super(reader);
         try {
             final Field f = StreamReader.class.getDeclaredField("name");
             f.setAccessible(true);
@@ -1,5 +1,6 @@
 package io.jenkins.plugins.casc.yaml;
 
+import io.jenkins.plugins.casc.jfr.CascEvents;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -7,6 +8,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URI;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import javax.servlet.http.HttpServletRequest;
@@ -20,8 +22,16 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class YamlSource<T> implements AutoCloseable {
 
     public static final YamlReader<String> READ_FROM_URL = config -> {
-        final URL url = URI.create(config).toURL();
-        return new InputStreamReader(url.openStream(), UTF_8);
+        if (HttpSourceCache.isHttp(config)) {
+            final HttpSourceCache cache = HttpSourceCache.get();
+            if (cache != null) {
+                return cache.open(config);
+            }
+        }
+        final URLConnection connection = URI.create(config).toURL().openConnection();
+        connection.setConnectTimeout(HttpSourceCache.CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(HttpSourceCache.READ_TIMEOUT_MILLIS);
+        return new InputStreamReader(connection.getInputStream(), UTF_8);
     };
 
     public static final YamlReader<Path> READ_FROM_PATH = Files::newBufferedReader;
@@ -63,7 +73,9 @@ public class YamlSource<T> implements AutoCloseable {
     }
 
     public Reader read() throws IOException {
-        return reader.open(source);
+        try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.SOURCE_OPEN, source())) {
+            return reader.open(source);
+        }
     }
 
     public String source() {
@@ -1,14 +1,15 @@
 package io.jenkins.plugins.casc.yaml;
 
+import io.jenkins.plugins.casc.CascMetrics;
 import io.jenkins.plugins.casc.ConfigurationAsCode;
 import io.jenkins.plugins.casc.ConfiguratorException;
+import io.jenkins.plugins.casc.jfr.CascEvents;
 import io.jenkins.plugins.casc.model.Mapping;
 import io.jenkins.plugins.casc.snakeyaml.composer.Composer;
 import io.jenkins.plugins.casc.snakeyaml.nodes.Node;
 import io.jenkins.plugins.casc.snakeyaml.parser.ParserImpl;
 import io.jenkins.plugins.casc.snakeyaml.resolver.Resolver;
 import java.io.IOException;
-import java.io.Reader;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -22,16 +23,19 @@ public final class YamlUtils {
 
     public static Node merge(List<YamlSource> configs, MergeStrategy mergeStrategy) throws ConfiguratorException {
         Node root = null;
-        for (YamlSource source : configs) {
-            try (Reader r = source.read()) {
-
+        for (YamlSource source : RemoteSources.prefetch(configs)) {
+            try {
                 final Node node = read(source);
 
                 if (root == null) {
                     root = node;
                 } else {
                     if (node != null) {
-                        root = mergeStrategy.merge(root, node, source.toString());
+                        final long start = System.nanoTime();
+                        try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.MERGE, mergeStrategy.getName())) {
+                            root = mergeStrategy.merge(root, node, source.toString());
+                        }
+                        CascMetrics.get().recordMerge(System.nanoTime() - start);
                     }
                 }
             } catch (IOException io) {
@@ -43,8 +47,15 @@ public final class YamlUtils {
     }
 
     public static Node read(YamlSource source) throws IOException {
-        Composer composer = new Composer(new ParserImpl(new StreamReaderWithSource(source)), new Resolver());
-        return composer.getSingleNode();
+        try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.PARSE, source.source())) {
+            final long start = System.nanoTime();
+            try (CountingReader reader = new CountingReader(source.read())) {
+                Composer composer = new Composer(new ParserImpl(new StreamReaderWithSource(source, reader)), new Resolver());
+                final Node node = composer.getSingleNode();
+                CascMetrics.get().recordParse(reader.getCount(), System.nanoTime() - start);
+                return node;
+            }
+        }
     }
 
     /**
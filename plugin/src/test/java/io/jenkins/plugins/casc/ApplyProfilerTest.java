@@ -0,0 +1,93 @@
+package io.jenkins.plugins.casc;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import net.sf.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ApplyProfilerTest {
+
+    @After
+    public void disable() {
+        ApplyProfiler.ENABLED = false;
+    }
+
+    @Test
+    public void shouldRecordNothingWhenDisabled() {
+        ApplyProfiler.ENABLED = false;
+        assertNull(ApplyProfiler.start());
+        assertNull(ApplyProfiler.enter("jenkins"));
+        assertNull(ApplyProfiler.enterElement(0));
+    }
+
+    @Test
+    public void shouldRecordCallTreeByConfigurationPath() {
+        ApplyProfiler.ENABLED = true;
+        ApplyProfiler.Report report = ApplyProfiler.start();
+        try (ApplyProfiler.Frame jenkins = ApplyProfiler.enter("jenkins")) {
+            try (ApplyProfiler.Frame clouds = ApplyProfiler.enter("clouds")) {
+                for (int i = 0; i < 2; i++) {
+                    try (ApplyProfiler.Frame element = ApplyProfiler.enterElement(i);
+                         ApplyProfiler.Frame kubernetes = ApplyProfiler.enter("kubernetes")) {
+                        try (ApplyProfiler.Frame templates = ApplyProfiler.enter("templates")) {
+                            // nothing to do
+                        }
+                        try (ApplyProfiler.Frame templates = ApplyProfiler.enter("templates")) {
+                            // nothing to do
+                        }
+                    }
+                }
+            }
+        }
+        ApplyProfiler.finish(report);
+
+        assertSame(report, ApplyProfiler.getLatest());
+        List<ApplyProfiler.Entry> entries = report.getEntries();
+        assertEquals(Arrays.asList(
+                "jenkins",
+                "jenkins/clouds",
+                "jenkins/clouds[0]",
+                "jenkins/clouds[0]/kubernetes",
+                "jenkins/clouds[0]/kubernetes/templates",
+                "jenkins/clouds[1]",
+                "jenkins/clouds[1]/kubernetes",
+                "jenkins/clouds[1]/kubernetes/templates"),
+                entries.stream().map(ApplyProfiler.Entry::getPath).collect(Collectors.toList()));
+        assertEquals(2, entries.get(4).getNode().getCount());
+        assertEquals(1, entries.get(0).getNode().getCount());
+
+        JSONObject json = report.toJSON();
+        assertEquals(8, json.getJSONArray("nodes").size());
+        assertEquals("jenkins/clouds[1]/kubernetes/templates",
+                json.getJSONArray("nodes").getJSONObject(7).getString("path"));
+    }
+
+    @Test
+    public void shouldPropagateCurrentNodeToWorkerThreads() throws Exception {
+        ApplyProfiler.ENABLED = true;
+        ApplyProfiler.Report report = ApplyProfiler.start();
+        try (ApplyProfiler.Frame jenkins = ApplyProfiler.enter("jenkins")) {
+            ApplyProfiler.Node node = ApplyProfiler.current();
+            Thread worker = new Thread(() -> {
+                ApplyProfiler.Node previous = ApplyProfiler.attach(node);
+                try (ApplyProfiler.Frame element = ApplyProfiler.enterElement(3)) {
+                    // nothing to do
+                } finally {
+                    ApplyProfiler.attach(previous);
+                }
+            });
+            worker.start();
+            worker.join();
+        }
+        ApplyProfiler.finish(report);
+
+        assertEquals(Arrays.asList("jenkins", "jenkins[3]"),
+                report.getEntries().stream().map(ApplyProfiler.Entry::getPath).collect(Collectors.toList()));
+    }
+}
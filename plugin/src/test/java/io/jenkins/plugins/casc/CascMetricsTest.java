@@ -0,0 +1,72 @@
+package io.jenkins.plugins.casc;
+
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Scalar;
+import io.jenkins.plugins.casc.model.Sequence;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CascMetricsTest {
+
+    @Test
+    public void shouldComputeReloadPercentilesOverLatestReloads() {
+        CascMetrics metrics = new CascMetrics();
+        assertEquals(0, metrics.getReloadMillisP50());
+
+        for (int i = 1; i <= 100; i++) {
+            metrics.recordReload(TimeUnit.MILLISECONDS.toNanos(i), i % 10 != 0);
+        }
+        assertEquals(100, metrics.getReloadCount());
+        assertEquals(10, metrics.getReloadFailures());
+        assertEquals(100, metrics.getLastReloadMillis());
+        assertEquals(50, metrics.getReloadMillisP50());
+        assertEquals(95, metrics.getReloadMillisP95());
+        assertEquals(99, metrics.getReloadMillisP99());
+        assertEquals(100, metrics.getReloadMillisMax());
+
+        for (int i = 0; i < CascMetrics.WINDOW; i++) {
+            metrics.recordReload(TimeUnit.MILLISECONDS.toNanos(7), true);
+        }
+        assertEquals(7, metrics.getReloadMillisMax());
+    }
+
+    @Test
+    public void shouldCountModelNodes() {
+        Mapping jenkins = new Mapping();
+        jenkins.put("systemMessage", new Scalar("hello"));
+        Sequence labels = new Sequence();
+        labels.add(new Scalar("linux"));
+        labels.add(new Scalar("docker"));
+        jenkins.put("labels", labels);
+        Mapping root = new Mapping();
+        root.put("jenkins", jenkins);
+
+        CascMetrics metrics = new CascMetrics();
+        metrics.recordModel(root);
+        assertEquals(6, metrics.getLastModelNodes());
+    }
+
+    @Test
+    public void shouldCountSecretLookupsBySource() {
+        CascMetrics metrics = new CascMetrics();
+        metrics.recordSecretLookup("a.Source");
+        metrics.recordSecretLookup("b.Source");
+        metrics.recordSecretLookup("a.Source");
+        assertEquals(3, metrics.getSecretLookups());
+        assertEquals(Long.valueOf(2), metrics.getSecretLookupsBySource().get("a.Source"));
+    }
+
+    @Test
+    public void shouldRegisterPlatformMBean() throws Exception {
+        CascMetrics.register();
+        CascMetrics.register();
+        CascMetrics.get().recordXmlSaves(3);
+        Object saves = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(CascMetrics.OBJECT_NAME), "LastXmlSaves");
+        assertEquals(3L, saves);
+    }
+}
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.casc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class ConfigFileIndexTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private ConfigFileIndex index;
+    private Path root;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new ConfigFileIndex(ConfigurationAsCode.YAML_FILES_PATTERN);
+        root = tempFolder.newFolder("casc").toPath();
+        Files.createDirectories(root.resolve("nested"));
+        Files.createDirectories(root.resolve(".git/objects"));
+        Files.createFile(root.resolve("jenkins.yaml"));
+        Files.createFile(root.resolve("nested/tools.yml"));
+        Files.createFile(root.resolve("nested/README.md"));
+        Files.createFile(root.resolve(".hidden.yaml"));
+        Files.createFile(root.resolve(".git/objects/ignored.yaml"));
+    }
+
+    @Test
+    public void shouldPruneHiddenDirectories() throws Exception {
+        assertEquals(Arrays.asList(root.resolve("jenkins.yaml"), root.resolve("nested/tools.yml")), index.list(root));
+    }
+
+    @Test
+    public void shouldNotWalkUnchangedDirectoriesAgain() throws Exception {
+        age(root);
+        ConfigFileIndex.Snapshot snapshot = index.get(root);
+        assertEquals(1, index.getScans());
+
+        assertSame(snapshot, index.get(root));
+        assertEquals(1, index.getScans());
+
+        // content change is detected without walking directories
+        Files.write(root.resolve("jenkins.yaml"), "jenkins:\n".getBytes());
+        ConfigFileIndex.Snapshot updated = index.get(root);
+        assertEquals(1, index.getScans());
+        assertNotEquals(snapshot.getFiles().get(0).getSize(), updated.getFiles().get(0).getSize());
+    }
+
+    @Test
+    public void shouldDetectNewFiles() throws Exception {
+        age(root);
+        index.list(root);
+
+        Files.createFile(root.resolve("nested/credentials.yaml"));
+        List<Path> files = index.list(root);
+        assertEquals(2, index.getScans());
+        assertEquals(Arrays.asList(
+                root.resolve("jenkins.yaml"), root.resolve("nested/credentials.yaml"), root.resolve("nested/tools.yml")),
+                files);
+    }
+
+    /**
+     * Make directories look like they haven't been modified recently, so they can be trusted.
+     */
+    private static void age(Path root) throws Exception {
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5));
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path)) {
+                    Files.setLastModifiedTime(path, past);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.jenkins.plugins.casc;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigurationWatcherTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private ConfigurationWatcher watcher;
+
+    @After
+    public void stop() {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void shouldRequestReloadOnceContentChanged() throws Exception {
+        File root = tempFolder.newFolder("casc");
+        Path nested = Files.createDirectories(root.toPath().resolve("nested"));
+        Path config = write(nested.resolve("jenkins.yaml"), "jenkins:\n  systemMessage: one\n");
+        Files.createDirectories(root.toPath().resolve(".hidden"));
+
+        Semaphore reloads = new Semaphore(0);
+        watcher = new ConfigurationWatcher(Collections.singletonList(root.getAbsolutePath()),
+                new ConfigurationAsCode()::configs, 100, reloads::release);
+        assertEquals(2, watcher.getWatchedDirectories());
+        watcher.startWatching();
+
+        // several writes in a row only request a single reload
+        write(config, "jenkins:\n  systemMessage: two\n");
+        write(config, "jenkins:\n  systemMessage: three\n");
+        assertTrue(reloads.tryAcquire(30, TimeUnit.SECONDS));
+        assertFalse(reloads.tryAcquire(1, TimeUnit.SECONDS));
+
+        // same content, nothing to reload
+        write(config, "jenkins:\n  systemMessage: three\n");
+        assertFalse(reloads.tryAcquire(2, TimeUnit.SECONDS));
+
+        // new files in new directories are detected
+        Path other = Files.createDirectories(root.toPath().resolve("other"));
+        write(other.resolve("tools.yaml"), "tool:\n  git:\n    installations: []\n");
+        assertTrue(reloads.tryAcquire(30, TimeUnit.SECONDS));
+    }
+
+    private static Path write(Path file, String content) throws Exception {
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
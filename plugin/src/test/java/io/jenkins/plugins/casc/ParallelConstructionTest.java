@@ -0,0 +1,100 @@
+package io.jenkins.plugins.casc;
+
+import io.jenkins.plugins.casc.impl.configurators.PrimitiveConfigurator;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Scalar;
+import io.jenkins.plugins.casc.model.Sequence;
+import io.jenkins.plugins.casc.model.Source;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelConstructionTest {
+
+    private int parallelism;
+    private int threshold;
+
+    @Before
+    public void enableParallelConstruction() {
+        parallelism = ParallelConstruction.PARALLELISM;
+        threshold = ParallelConstruction.THRESHOLD;
+        ParallelConstruction.PARALLELISM = 4;
+        ParallelConstruction.THRESHOLD = 2;
+        ParallelConstruction.THREAD_SAFE_TYPES.add(String.class.getName());
+    }
+
+    @After
+    public void restore() {
+        ParallelConstruction.PARALLELISM = parallelism;
+        ParallelConstruction.THRESHOLD = threshold;
+        ParallelConstruction.THREAD_SAFE_TYPES.remove(String.class.getName());
+    }
+
+    @Test
+    public void shouldKeepSequenceOrder() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Object> values = ParallelConstruction.build(new PrimitiveConfigurator(String.class), sequence(50), null, node -> {
+            threads.add(Thread.currentThread().getName());
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextInt(5)));
+            return node.asScalar().getValue();
+        });
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add("value-" + i);
+        }
+        assertEquals(expected, values);
+        assertTrue("expected elements to be built by worker threads: " + threads,
+                threads.stream().allMatch(name -> name.startsWith("CasC parallel construction")));
+    }
+
+    @Test
+    public void shouldReportFirstFailureWithSource() throws Exception {
+        try {
+            ParallelConstruction.build(new PrimitiveConfigurator(String.class), sequence(20), null, node -> {
+                String value = node.asScalar().getValue();
+                if (value.equals("value-7") || value.equals("value-13")) {
+                    throw new ConfiguratorException("invalid " + value);
+                }
+                return value;
+            });
+            fail("expected a ConfiguratorException");
+        } catch (ConfiguratorException e) {
+            assertThat(e.getMessage(), containsString("test.yaml:8"));
+            assertThat(e.getMessage(), containsString("invalid value-7"));
+        }
+    }
+
+    @Test
+    public void shouldBuildSequentiallyUnlessThreadSafe() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ParallelConstruction.build(new PrimitiveConfigurator(Integer.class), sequence(20), null, node -> {
+            threads.add(Thread.currentThread().getName());
+            return node;
+        });
+        assertEquals(1, threads.size());
+        assertTrue(threads.contains(Thread.currentThread().getName()));
+    }
+
+    private static Sequence sequence(int size) {
+        Sequence sequence = new Sequence();
+        for (int i = 0; i < size; i++) {
+            CNode node = new Scalar("value-" + i, new Source("test.yaml", i + 1));
+            sequence.add(node);
+        }
+        return sequence;
+    }
+}
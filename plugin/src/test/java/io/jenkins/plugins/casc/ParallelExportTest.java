@@ -0,0 +1,123 @@
+package io.jenkins.plugins.casc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelExportTest {
+
+    private int parallelism;
+
+    @Before
+    public void enableParallelExport() {
+        parallelism = ParallelExport.PARALLELISM;
+        ParallelExport.PARALLELISM = 4;
+    }
+
+    @After
+    public void restore() {
+        ParallelExport.PARALLELISM = parallelism;
+    }
+
+    @Test
+    public void shouldConsumeInOrder() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<String> consumed = new ArrayList<>();
+        ParallelExport.forEachOrdered(items(50), i -> {
+            threads.add(Thread.currentThread().getName());
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextInt(5)));
+            return "value-" + i;
+        }, (i, value) -> consumed.add(value));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add("value-" + i);
+        }
+        assertEquals(expected, consumed);
+        assertTrue("expected items to be described by worker threads: " + threads,
+                !threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void shouldDescribeNestedItems() throws Exception {
+        // more nested items than workers, waiting workers have to help with pending ones
+        List<List<Integer>> values = ParallelExport.map(items(8), i -> ParallelExport.map(items(8), j -> i * j));
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                assertEquals(i * j, (int) values.get(i).get(j));
+            }
+        }
+    }
+
+    @Test
+    public void shouldDescribeNestedItemsInPoolOfTopLevelCall() throws Exception {
+        List<Boolean> samePool = ParallelExport.map(items(4), i -> {
+            ForkJoinPool parent = ForkJoinTask.getPool();
+            if (i == 0) {
+                // another export with a new parallelism replaces the pool meanwhile
+                ParallelExport.PARALLELISM = 3;
+                Thread other = new Thread(() -> {
+                    try {
+                        ParallelExport.map(items(2), j -> j);
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                });
+                other.start();
+                other.join();
+            }
+            return ParallelExport.map(items(4), j -> ForkJoinTask.getPool()).stream().allMatch(pool -> pool == parent);
+        });
+        assertEquals(Arrays.asList(true, true, true, true), samePool);
+    }
+
+    @Test
+    public void shouldReportFirstFailureInOrder() throws Exception {
+        try {
+            ParallelExport.map(items(20), i -> {
+                if (i == 13) {
+                    throw new ConfiguratorException("invalid " + i);
+                }
+                if (i == 7) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                    throw new ConfiguratorException("invalid " + i);
+                }
+                return i;
+            });
+            fail("expected a ConfiguratorException");
+        } catch (ConfiguratorException e) {
+            assertEquals("invalid 7", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldDescribeSequentiallyWhenDisabled() throws Exception {
+        ParallelExport.PARALLELISM = 0;
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ParallelExport.map(items(20), i -> threads.add(Thread.currentThread().getName()));
+        assertEquals(1, threads.size());
+        assertTrue(threads.contains(Thread.currentThread().getName()));
+    }
+
+    private static List<Integer> items(int size) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+}
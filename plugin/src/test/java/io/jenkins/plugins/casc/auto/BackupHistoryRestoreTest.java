@@ -0,0 +1,46 @@
+package io.jenkins.plugins.casc.auto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import hudson.util.Secret;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+
+public class BackupHistoryRestoreTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void shouldRestoreRecordedRevision() throws Exception {
+        final BackupHistory history = BackupHistory.get();
+        final long first = history.record(config("first"));
+        final long second = history.record(config("second"));
+
+        history.restore(second);
+        assertEquals("second ${literal}", j.jenkins.getSystemMessage());
+        assertEquals("second-secret", Secret.decrypt(j.jenkins.proxy.getEncryptedPassword()).getPlainText());
+
+        history.restore(first);
+        assertEquals("first ${literal}", j.jenkins.getSystemMessage());
+        assertEquals("first-secret", Secret.decrypt(j.jenkins.proxy.getEncryptedPassword()).getPlainText());
+    }
+
+    /**
+     * Configuration as exported: secrets in their encrypted <code>{...}</code> form, <code>${</code> escaped.
+     */
+    private static JsonNode config(String name) {
+        final ObjectNode config = new ObjectMapper().createObjectNode();
+        final ObjectNode jenkins = config.putObject("jenkins");
+        jenkins.put("systemMessage", name + " ^${literal}");
+        final ObjectNode proxy = jenkins.putObject("proxy");
+        proxy.put("name", "proxyhost");
+        proxy.put("port", 80);
+        proxy.put("password", Secret.fromString(name + "-secret").getEncryptedValue());
+        return config;
+    }
+}
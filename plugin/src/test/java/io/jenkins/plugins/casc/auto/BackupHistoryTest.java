@@ -0,0 +1,117 @@
+package io.jenkins.plugins.casc.auto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BackupHistoryTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private int interval;
+    private int retention;
+
+    @Before
+    public void configure() {
+        interval = BackupHistory.SNAPSHOT_INTERVAL;
+        retention = BackupHistory.RETENTION;
+        BackupHistory.SNAPSHOT_INTERVAL = 5;
+        BackupHistory.RETENTION = 8;
+    }
+
+    @After
+    public void restore() {
+        BackupHistory.SNAPSHOT_INTERVAL = interval;
+        BackupHistory.RETENTION = retention;
+    }
+
+    @Test
+    public void shouldRebuildEveryRetainedRevision() throws Exception {
+        final File dir = tmp.newFolder();
+        final BackupHistory history = new BackupHistory(dir.toPath());
+        final List<JsonNode> configs = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            final JsonNode config = config(i);
+            configs.add(config);
+            assertEquals(i, history.record(config));
+        }
+
+        // revision 15 is the oldest retained, rebuilt from the snapshot at 15
+        assertEquals(Arrays.asList(15L, 16L, 17L, 18L, 19L, 20L, 21L, 22L), history.getRevisions());
+        final String[] snapshots = dir.list((d, name) -> name.endsWith(".json.gz") && !name.contains(".patch"));
+        assertEquals(2, snapshots.length);
+
+        // rebuild from disk, as after a restart
+        final BackupHistory reloaded = new BackupHistory(dir.toPath());
+        for (long r : reloaded.getRevisions()) {
+            assertEquals(configs.get((int) r), reloaded.rebuild(r));
+        }
+
+        assertEquals(23, reloaded.record(config(23)));
+        assertEquals(config(23), history.rebuild(23));
+    }
+
+    @Test
+    public void shouldOnlyDiffChangedRootElements() throws Exception {
+        final File dir = tmp.newFolder();
+        final File unused = new File(dir, "missing.yaml");
+        final BackupHistory history = new BackupHistory(dir.toPath());
+        history.record(config(0));
+        for (int i = 1; i < 12; i++) {
+            final Map<String, JsonNode> changes = new HashMap<>();
+            changes.put("jenkins", config(i).get("jenkins"));
+            changes.put("unclassified", config(i).get("unclassified"));
+            changes.put("removed", null);
+            // the file is only read when the previous revision isn't known
+            assertEquals(i, history.record(unused, changes));
+        }
+
+        final BackupHistory reloaded = new BackupHistory(dir.toPath());
+        for (long r : reloaded.getRevisions()) {
+            assertEquals(config((int) r), reloaded.rebuild(r));
+        }
+    }
+
+    @Test
+    public void shouldRejectUnknownRevision() throws Exception {
+        final BackupHistory history = new BackupHistory(tmp.newFolder().toPath());
+        history.record(config(0));
+        try {
+            history.rebuild(1);
+            fail("revision 1 doesn't exist");
+        } catch (IOException e) {
+            assertEquals("No such configuration revision 1", e.getMessage());
+        }
+    }
+
+    private static JsonNode config(int revision) {
+        final ObjectMapper mapper = new ObjectMapper();
+        final ObjectNode config = mapper.createObjectNode();
+        final ObjectNode jenkins = config.putObject("jenkins");
+        jenkins.put("systemMessage", "revision " + revision);
+        jenkins.put("numExecutors", revision % 4);
+        final ArrayNode nodes = jenkins.putArray("nodes");
+        for (int i = 0; i <= revision % 3; i++) {
+            nodes.addObject().put("name", "agent-" + i);
+        }
+        config.putObject("unclassified").putObject("location").put("adminAddress", "admin-" + revision + "@acme.org");
+        return config;
+    }
+}
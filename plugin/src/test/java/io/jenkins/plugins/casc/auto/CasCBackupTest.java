@@ -0,0 +1,82 @@
+package io.jenkins.plugins.casc.auto;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.JenkinsLocationConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CasCBackupTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private boolean enabled;
+    private long quietPeriod;
+
+    @Before
+    public void enableBackup() {
+        enabled = CasCBackup.enableBackup;
+        quietPeriod = CasCBackup.QUIET_PERIOD_MILLIS;
+        CasCBackup.enableBackup = true;
+        CasCBackup.QUIET_PERIOD_MILLIS = 200;
+    }
+
+    @After
+    public void restore() {
+        CasCBackup.enableBackup = enabled;
+        CasCBackup.QUIET_PERIOD_MILLIS = quietPeriod;
+    }
+
+    @Test
+    public void shouldBackupOnceAfterBurstOfSaves() throws Exception {
+        // much longer than any pause between two saves of the burst, even on a slow machine
+        CasCBackup.QUIET_PERIOD_MILLIS = 5_000;
+        final long before = CasCBackup.getBackups();
+        final long start = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            JenkinsLocationConfiguration.get().setAdminAddress("admin-" + i + "@acme.org");
+        }
+        // saves aren't held by the backup
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+
+        final File backup = new File(j.jenkins.getRootDir(), "jenkins.backup.yaml");
+        awaitBackups(before + 1);
+        Thread.sleep(CasCBackup.QUIET_PERIOD_MILLIS);
+        assertEquals(before + 1, CasCBackup.getBackups());
+        assertTrue(FileUtils.readFileToString(backup, StandardCharsets.UTF_8).contains("admin-499@acme.org"));
+    }
+
+    @Test
+    public void shouldSkipUnchangedExport() throws Exception {
+        JenkinsLocationConfiguration.get().setAdminAddress("unchanged@acme.org");
+        CasCBackup.backup();
+        final long before = CasCBackup.getBackups();
+
+        assertFalse(CasCBackup.backup());
+        assertEquals(before, CasCBackup.getBackups());
+        final File dir = j.jenkins.getRootDir();
+        final String[] tmp = dir.list((d, name) -> name.endsWith(".tmp"));
+        assertEquals(0, tmp == null ? 0 : tmp.length);
+    }
+
+    private static void awaitBackups(long expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30)
+                + TimeUnit.MILLISECONDS.toNanos(CasCBackup.QUIET_PERIOD_MILLIS);
+        while (CasCBackup.getBackups() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("expected " + expected + " backups, got " + CasCBackup.getBackups());
+            }
+            Thread.sleep(50);
+        }
+    }
+}
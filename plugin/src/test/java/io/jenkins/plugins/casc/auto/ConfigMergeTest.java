@@ -0,0 +1,110 @@
+package io.jenkins.plugins.casc.auto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigMergeTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final YamlMapper mapper = new YamlMapper();
+
+    @Test
+    public void shouldApplyUserChangesToNewSystemConfig() throws Exception {
+        JsonNode baseline = mapper.read("jenkins:\n  systemMessage: v1\n  numExecutors: 2\n");
+        JsonNode user = mapper.read("jenkins:\n  systemMessage: v1\n  numExecutors: 4\n");
+        JsonNode system = mapper.read("jenkins:\n  systemMessage: v2\n  numExecutors: 2\n  quietPeriod: 10\n");
+
+        assertEquals(mapper.read("jenkins:\n  systemMessage: v2\n  numExecutors: 4\n  quietPeriod: 10\n"),
+            ConfigMerge.merge(system, baseline, baseline, user));
+    }
+
+    @Test
+    public void shouldMatchListElementsByKey() throws Exception {
+        JsonNode baseline = mapper.read("jenkins:\n  nodes:\n"
+            + "  - permanent: {name: a, remoteFS: /a}\n"
+            + "  - permanent: {name: b, remoteFS: /b}\n");
+        // the user reordered agents, changed b and added c
+        JsonNode user = mapper.read("jenkins:\n  nodes:\n"
+            + "  - permanent: {name: b, remoteFS: /user}\n"
+            + "  - permanent: {name: a, remoteFS: /a}\n"
+            + "  - permanent: {name: c, remoteFS: /c}\n");
+        // the new system configuration changed a and added d in front
+        JsonNode system = mapper.read("jenkins:\n  nodes:\n"
+            + "  - permanent: {name: d, remoteFS: /d}\n"
+            + "  - permanent: {name: a, remoteFS: /system}\n"
+            + "  - permanent: {name: b, remoteFS: /b}\n");
+
+        assertEquals(mapper.read("jenkins:\n  nodes:\n"
+                + "  - permanent: {name: d, remoteFS: /d}\n"
+                + "  - permanent: {name: a, remoteFS: /system}\n"
+                + "  - permanent: {name: b, remoteFS: /user}\n"
+                + "  - permanent: {name: c, remoteFS: /c}\n"),
+            ConfigMerge.merge(system, baseline, baseline, user));
+    }
+
+    @Test
+    public void shouldRemoveWhatUserRemoved() throws Exception {
+        JsonNode baseline = mapper.read("jenkins:\n  labelString: a b\n  views:\n  - all: {name: all}\n  - list: {name: mine}\n");
+        JsonNode user = mapper.read("jenkins:\n  views:\n  - all: {name: all}\n");
+        JsonNode system = mapper.read("jenkins:\n  labelString: a b c\n  views:\n  - all: {name: all}\n  - list: {name: mine}\n");
+
+        assertEquals(mapper.read("jenkins:\n  views:\n  - all: {name: all}\n"),
+            ConfigMerge.merge(system, baseline, baseline, user));
+    }
+
+    @Test
+    public void shouldReplaceListsWithoutKeys() throws Exception {
+        JsonNode baseline = mapper.read("tool:\n  steps:\n  - {x: 1, y: 1}\n  - {x: 1, y: 1}\n");
+        JsonNode user = mapper.read("tool:\n  steps:\n  - {x: 1, y: 1}\n  - {x: 2, y: 1}\n");
+        JsonNode system = mapper.read("tool:\n  steps:\n  - {x: 3, y: 3}\n");
+
+        assertEquals(user, ConfigMerge.merge(system, baseline, baseline, user));
+    }
+
+    @Test
+    public void shouldKeepUserConfigWithoutBaseline() throws Exception {
+        JsonNode user = mapper.read("jenkins:\n  systemMessage: user\n");
+        JsonNode system = mapper.read("jenkins:\n  systemMessage: system\n  numExecutors: 2\n");
+
+        assertEquals(mapper.read("jenkins:\n  systemMessage: user\n  numExecutors: 2\n"),
+            ConfigMerge.merge(system, null, null, user));
+    }
+
+    @Test
+    public void shouldKeepSystemValuesNeverExported() throws Exception {
+        JsonNode baseline = mapper.read("jenkins:\n  systemMessage: v1\n  numExecutors: 2\njobs:\n- script: job1\n");
+        // the export prunes default values and never holds jobs
+        JsonNode previous = mapper.read("jenkins:\n  systemMessage: v1\n");
+        JsonNode user = mapper.read("jenkins:\n  systemMessage: user\n");
+        JsonNode system = mapper.read("jenkins:\n  systemMessage: v1\n  numExecutors: 2\njobs:\n- script: job2\n");
+
+        assertEquals(mapper.read("jenkins:\n  systemMessage: user\n  numExecutors: 2\njobs:\n- script: job2\n"),
+            ConfigMerge.merge(system, baseline, previous, user));
+    }
+
+    @Test
+    public void shouldKeepBaselineForNextPatch() throws Exception {
+        File system = tmp.newFile("jenkins.yaml");
+        File user = tmp.newFile("jenkins.backup.yaml");
+        File target = new File(tmp.getRoot(), "casc_config_auto/jenkins.yaml");
+        FileUtils.writeStringToFile(system, "jenkins:\n  systemMessage: v1\n  numExecutors: 2\n", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(user, "jenkins:\n  systemMessage: v1\n  numExecutors: 4\n", StandardCharsets.UTF_8);
+        PatchConfig.patchConfig(system, user, target);
+        assertTrue(new File(target.getParentFile(), "jenkins.baseline.yaml").exists());
+        assertTrue(new File(target.getParentFile(), "jenkins.backup.previous.yaml").exists());
+
+        FileUtils.writeStringToFile(system, "jenkins:\n  systemMessage: v2\n  numExecutors: 2\n", StandardCharsets.UTF_8);
+        PatchConfig.patchConfig(system, user, target);
+        assertEquals(mapper.read("jenkins:\n  systemMessage: v2\n  numExecutors: 4\n"), mapper.read(target));
+    }
+}
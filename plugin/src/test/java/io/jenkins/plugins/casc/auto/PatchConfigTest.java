@@ -0,0 +1,36 @@
+package io.jenkins.plugins.casc.auto;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PatchConfigTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldSkipUnchangedInputs() throws Exception {
+        File system = tmp.newFile("jenkins.yaml");
+        File user = tmp.newFile("jenkins.backup.yaml");
+        File target = new File(tmp.getRoot(), "casc_config_auto/jenkins.yaml");
+        FileUtils.writeStringToFile(system, "jenkins:\n  systemMessage: system\n", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(user, "jenkins:\n  systemMessage: user\n", StandardCharsets.UTF_8);
+        assertTrue(PatchConfig.patchConfig(system, user, target));
+
+        FileUtils.writeStringToFile(target, "untouched", StandardCharsets.UTF_8);
+        assertFalse(PatchConfig.patchConfig(system, user, target));
+        assertEquals("untouched", FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+
+        FileUtils.writeStringToFile(user, "jenkins:\n  systemMessage: changed\n", StandardCharsets.UTF_8);
+        assertTrue(PatchConfig.patchConfig(system, user, target));
+        assertEquals("changed", new YamlMapper().read(target).get("jenkins").get("systemMessage").asText());
+    }
+}
@@ -1,10 +1,15 @@
 package io.jenkins.plugins.casc.impl.configurators;
 
 import hudson.model.Node;
+import hudson.util.Secret;
 import io.jenkins.plugins.casc.ConfigurationContext;
 import io.jenkins.plugins.casc.Configurator;
 import io.jenkins.plugins.casc.ConfiguratorRegistry;
 import io.jenkins.plugins.casc.model.Scalar;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -14,6 +19,7 @@ import org.junit.contrib.java.lang.system.EnvironmentVariables;
 import org.jvnet.hudson.test.JenkinsRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -112,4 +118,43 @@ public class PrimitiveConfiguratorTest {
         final Object value = c.configure(new Scalar("${ENV_FOR_TEST:-123}"), context);
         assertEquals(123, value);
     }
+
+    @Test
+    public void _secret_encrypted_once() throws Exception {
+        Configurator c = new PrimitiveConfigurator(Secret.class);
+        List<Secret> secrets = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            secrets.add(Secret.fromString("password-" + i));
+        }
+        List<String> first = describe(c, secrets);
+        List<String> second = describe(c, secrets);
+        assertEquals(first, second);
+        assertEquals(secrets.size(), new HashSet<>(first).size());
+        for (int i = 0; i < secrets.size(); i++) {
+            assertEquals("password-" + i, Secret.decrypt(first.get(i)).getPlainText());
+        }
+    }
+
+    @Test
+    public void _secret_encrypted_each_time_when_cache_disabled() throws Exception {
+        Configurator c = new PrimitiveConfigurator(Secret.class);
+        Secret secret = Secret.fromString("password");
+        boolean cache = PrimitiveConfigurator.CACHE_ENCRYPTED_SECRETS;
+        PrimitiveConfigurator.CACHE_ENCRYPTED_SECRETS = false;
+        try {
+            List<String> values = describe(c, Arrays.asList(secret, secret));
+            assertNotEquals(values.get(0), values.get(1));
+        } finally {
+            PrimitiveConfigurator.CACHE_ENCRYPTED_SECRETS = cache;
+        }
+    }
+
+    private static List<String> describe(Configurator c, List<Secret> secrets) throws Exception {
+        List<String> values = new ArrayList<>();
+        for (Secret secret : secrets) {
+            Scalar scalar = c.describe(secret, context).asScalar();
+            values.add(scalar.getValue());
+        }
+        return values;
+    }
 }
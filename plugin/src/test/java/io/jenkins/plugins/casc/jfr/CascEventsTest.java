@@ -0,0 +1,35 @@
+package io.jenkins.plugins.casc.jfr;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+public class CascEventsTest {
+
+    @Test
+    public void shouldNotRecordWithoutRecording() {
+        try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.PARSE, "jenkins.yaml")) {
+            assertNull(span);
+        }
+    }
+
+    @Test
+    public void shouldRecordWhileRecording() throws Exception {
+        assumeTrue(CascEvents.isSupported());
+
+        // jdk.jfr isn't part of the Java 8 API the plugin compiles against
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+        recordingClass.getMethod("enable", String.class).invoke(recording, "io.jenkins.plugins.casc.Parse");
+        recordingClass.getMethod("start").invoke(recording);
+        try {
+            try (CascEvents.Span span = CascEvents.begin(CascEvents.Type.PARSE, "jenkins.yaml")) {
+                assertNotNull(span);
+            }
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+        }
+    }
+}
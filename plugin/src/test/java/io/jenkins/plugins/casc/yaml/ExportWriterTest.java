@@ -0,0 +1,103 @@
+package io.jenkins.plugins.casc.yaml;
+
+import io.jenkins.plugins.casc.ConfigurationAsCode;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Scalar;
+import io.jenkins.plugins.casc.model.Sequence;
+import io.jenkins.plugins.casc.snakeyaml.nodes.MappingNode;
+import io.jenkins.plugins.casc.snakeyaml.nodes.Node;
+import io.jenkins.plugins.casc.snakeyaml.nodes.NodeTuple;
+import io.jenkins.plugins.casc.snakeyaml.nodes.ScalarNode;
+import io.jenkins.plugins.casc.snakeyaml.nodes.Tag;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.FlowStyle.BLOCK;
+import static io.jenkins.plugins.casc.snakeyaml.DumperOptions.ScalarStyle.PLAIN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExportWriterTest {
+
+    @Test
+    public void shouldWriteSameYamlAsNodeTree() throws Exception {
+        final Mapping jenkins = new Mapping();
+        jenkins.put("systemMessage", "Hello \"world\"");
+        jenkins.put("numExecutors", 4);
+        jenkins.put("disableRememberMe", new Scalar(true));
+        jenkins.put("mode", new Scalar(Thread.State.NEW));
+        jenkins.put("description", "first line\nsecond line\n");
+        jenkins.put("empty", "");
+        jenkins.put("emptyMapping", new Mapping());
+        final Sequence emptySequence = new Sequence();
+        emptySequence.add(new Scalar(""));
+        jenkins.put("emptySequence", emptySequence);
+        final Sequence labels = new Sequence();
+        labels.add(new Scalar("linux"));
+        labels.add(new Scalar("123"));
+        labels.add(new Scalar(""));
+        final Mapping node = new Mapping();
+        node.put("name", "agent");
+        node.put("remoteFS", "/home/jenkins");
+        labels.add(node);
+        jenkins.put("labels", labels);
+
+        final Mapping tool = new Mapping();
+        tool.put("git", new Mapping());
+
+        final Map<String, CNode> roots = new LinkedHashMap<>();
+        roots.put("jenkins", jenkins);
+        roots.put("tool", tool);
+        roots.put("unclassified", null);
+
+        assertEquals(serializeTree(roots), stream(roots));
+    }
+
+    @Test
+    public void shouldWriteEmptyExport() throws Exception {
+        final Map<String, CNode> roots = new LinkedHashMap<>();
+        roots.put("jenkins", new Mapping());
+        assertEquals(serializeTree(roots), stream(roots));
+    }
+
+    @Test
+    public void shouldDetectPrunedNodes() throws Exception {
+        assertTrue(ExportWriter.isEmpty(null));
+        assertTrue(ExportWriter.isEmpty(new Scalar("")));
+        final Mapping mapping = new Mapping();
+        mapping.put("nested", new Sequence());
+        assertTrue(ExportWriter.isEmpty(mapping));
+        mapping.put("value", "x");
+        assertFalse(ExportWriter.isEmpty(mapping));
+    }
+
+    private static String stream(Map<String, CNode> roots) throws Exception {
+        final StringWriter out = new StringWriter();
+        final ExportWriter writer = new ExportWriter(out);
+        writer.start();
+        for (Map.Entry<String, CNode> root : roots.entrySet()) {
+            writer.write(root.getKey(), root.getValue());
+        }
+        writer.end();
+        return out.toString();
+    }
+
+    private static String serializeTree(Map<String, CNode> roots) throws Exception {
+        final ConfigurationAsCode casc = new ConfigurationAsCode();
+        final List<NodeTuple> tuples = new ArrayList<>();
+        for (Map.Entry<String, CNode> root : roots.entrySet()) {
+            final Node value = casc.toYaml(root.getValue());
+            if (value == null) continue;
+            tuples.add(new NodeTuple(new ScalarNode(Tag.STR, root.getKey(), null, null, PLAIN), value));
+        }
+        final StringWriter out = new StringWriter();
+        ConfigurationAsCode.serializeYamlNode(new MappingNode(Tag.MAP, tuples, BLOCK), out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package io.jenkins.plugins.casc.yaml;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class HttpSourceCacheTest {
+
+    private static final String CONTENT = "jenkins:\n  systemMessage: cached\n";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private HttpServer server;
+    private HttpSourceCache cache;
+    private final List<Integer> responses = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean available = true;
+    private volatile int failure = 503;
+    private volatile boolean gzip;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/jenkins.yaml", exchange -> {
+            try {
+                if (!available) {
+                    responses.add(failure);
+                    exchange.sendResponseHeaders(failure, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    responses.add(304);
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+                byte[] body = CONTENT.getBytes(UTF_8);
+                if (gzip && "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                    body = gzip(body);
+                }
+                responses.add(200);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        cache = new HttpSourceCache(tempFolder.newFolder("cache"));
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldRevalidateCachedCopy() throws Exception {
+        assertEquals(CONTENT, fetch(false));
+        assertEquals(CONTENT, fetch(false));
+        assertEquals(Integer.valueOf(200), responses.get(0));
+        assertEquals(Integer.valueOf(304), responses.get(1));
+    }
+
+    @Test
+    public void shouldDecodeGzipResponse() throws Exception {
+        gzip = true;
+        assertEquals(CONTENT, fetch(false));
+    }
+
+    @Test
+    public void shouldFallBackToCachedCopyWhenAllowed() throws Exception {
+        assertEquals(CONTENT, fetch(false));
+        available = false;
+        assertEquals(CONTENT, fetch(true));
+        try {
+            fetch(false);
+            fail("expected remote failure to be reported");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldNotFallBackToCachedCopyOnClientError() throws Exception {
+        assertEquals(CONTENT, fetch(false));
+        available = false;
+        failure = 404;
+        try {
+            fetch(true);
+            fail("expected client error to be reported");
+        } catch (HttpSourceCache.HttpStatusException e) {
+            assertEquals(404, e.getStatus());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailWithoutCachedCopy() throws Exception {
+        available = false;
+        fetch(true);
+    }
+
+    private String fetch(boolean allowStale) throws IOException {
+        final String url = "http://localhost:" + server.getAddress().getPort() + "/jenkins.yaml";
+        return new String(cache.fetch(url, allowStale), UTF_8);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
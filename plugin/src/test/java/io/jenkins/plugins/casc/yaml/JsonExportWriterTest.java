@@ -0,0 +1,97 @@
+package io.jenkins.plugins.casc.yaml;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Scalar;
+import io.jenkins.plugins.casc.model.Sequence;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonExportWriterTest {
+
+    @Test
+    public void shouldWriteSameContentAsYaml() throws Exception {
+        final Mapping jenkins = new Mapping();
+        jenkins.put("systemMessage", "Hello \"world\"");
+        jenkins.put("numExecutors", 4);
+        jenkins.put("disableRememberMe", new Scalar(true));
+        jenkins.put("mode", new Scalar(Thread.State.NEW));
+        jenkins.put("description", "first line\nsecond line\n");
+        jenkins.put("empty", "");
+        jenkins.put("emptyMapping", new Mapping());
+        final Sequence labels = new Sequence();
+        labels.add(new Scalar("linux"));
+        labels.add(new Scalar("123"));
+        labels.add(new Scalar(""));
+        final Mapping node = new Mapping();
+        node.put("name", "agent");
+        node.put("remoteFS", "/home/jenkins");
+        labels.add(node);
+        jenkins.put("labels", labels);
+
+        final Map<String, CNode> roots = new LinkedHashMap<>();
+        roots.put("jenkins", jenkins);
+        roots.put("unclassified", null);
+
+        final JsonNode json = new ObjectMapper().readTree(write(ExportFormat.JSON, roots));
+        final JsonNode yaml = new ObjectMapper(new YAMLFactory()).readTree(write(ExportFormat.YAML, roots));
+        assertEquals(yaml, json);
+
+        final JsonNode exported = json.get("jenkins");
+        assertTrue(exported.get("numExecutors").isInt());
+        assertTrue(exported.get("disableRememberMe").isBoolean());
+        assertTrue(exported.get("labels").get(1).isTextual());
+        assertFalse(exported.has("empty"));
+        assertFalse(json.has("unclassified"));
+    }
+
+    @Test
+    public void shouldSortKeys() throws Exception {
+        final Mapping mapping = new Mapping();
+        mapping.put("b", "2");
+        mapping.put("c", "3");
+        mapping.put("a", "1");
+        final Map<String, CNode> roots = new LinkedHashMap<>();
+        roots.put("unclassified", mapping);
+
+        final Iterator<String> names = new ObjectMapper().readTree(write(ExportFormat.JSON, roots)).get("unclassified").fieldNames();
+        final List<String> keys = new ArrayList<>();
+        names.forEachRemaining(keys::add);
+        assertEquals("[a, b, c]", keys.toString());
+    }
+
+    @Test
+    public void shouldWriteInvalidNumbersAsStrings() throws Exception {
+        final Mapping mapping = new Mapping();
+        mapping.put("ratio", new Scalar(Double.NaN));
+        final Map<String, CNode> roots = new LinkedHashMap<>();
+        roots.put("jenkins", mapping);
+
+        final JsonNode ratio = new ObjectMapper().readTree(write(ExportFormat.JSON, roots)).get("jenkins").get("ratio");
+        assertTrue(ratio.isTextual());
+        assertEquals("NaN", ratio.asText());
+    }
+
+    private static String write(ExportFormat format, Map<String, CNode> roots) throws Exception {
+        final StringWriter out = new StringWriter();
+        final ConfigurationWriter writer = format.open(out);
+        writer.start();
+        for (Map.Entry<String, CNode> root : roots.entrySet()) {
+            writer.write(root.getKey(), root.getValue());
+        }
+        writer.end();
+        return out.toString();
+    }
+}
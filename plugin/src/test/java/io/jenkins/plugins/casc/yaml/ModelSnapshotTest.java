@@ -0,0 +1,131 @@
+package io.jenkins.plugins.casc.yaml;
+
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.model.Sequence;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelSnapshotTest {
+
+    private static final String JENKINS = "jenkins:\n"
+            + "  systemMessage: \"snapshot\"\n"
+            + "  numExecutors: 2\n"
+            + "  securityRealm:\n"
+            + "    local:\n"
+            + "      users:\n"
+            + "        - id: admin\n"
+            + "          password: ${ADMIN_PASSWORD}\n"
+            + "  labelString:\n";
+
+    private static final String TOOLS = "tool:\n"
+            + "  git:\n"
+            + "    installations:\n"
+            + "      - name: git\n"
+            + "        home: /usr/bin/git\n";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File file;
+    private ModelSnapshot snapshot;
+    private Path jenkins;
+    private Path tools;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(tempFolder.getRoot(), "casc-model.snapshot");
+        snapshot = new ModelSnapshot(file);
+        jenkins = tempFolder.newFile("jenkins.yaml").toPath();
+        tools = tempFolder.newFile("tools.yaml").toPath();
+        Files.write(jenkins, JENKINS.getBytes(UTF_8));
+        Files.write(tools, TOOLS.getBytes(UTF_8));
+    }
+
+    @Test
+    public void shouldLoadSameModelFromSnapshot() throws Exception {
+        final Mapping parsed = YamlUtils.loadFrom(sources(), new OrderMergeStrategy());
+        final Mapping first = snapshot.load(sources(), new OrderMergeStrategy());
+        assertTrue(file.exists());
+        final Mapping second = snapshot.load(sources(), new OrderMergeStrategy());
+
+        assertSameModel(parsed, first);
+        assertSameModel(parsed, second);
+        final CNode password = second.get("jenkins").asMapping().get("securityRealm").asMapping().get("local")
+                .asMapping().get("users").asSequence().get(0).asMapping().get("password");
+        assertEquals("${ADMIN_PASSWORD}", password.asScalar().getValue());
+        assertEquals(jenkins.toString(), password.getSource().file);
+        assertEquals(8, password.getSource().line);
+    }
+
+    @Test
+    public void shouldIgnoreSnapshotOfOtherSources() throws Exception {
+        snapshot.write("digest", YamlUtils.loadFrom(sources(), new OrderMergeStrategy()));
+        assertNotNull(snapshot.read("digest"));
+        assertNull(snapshot.read("other"));
+
+        snapshot.load(sources(), new OrderMergeStrategy());
+        Files.write(tools, TOOLS.replace("/usr/bin/git", "/opt/git").getBytes(UTF_8));
+        final Mapping changed = snapshot.load(sources(), new OrderMergeStrategy());
+        assertEquals("/opt/git", changed.get("tool").asMapping().get("git").asMapping().get("installations")
+                .asSequence().get(0).asMapping().get("home").asScalar().getValue());
+    }
+
+    @Test
+    public void shouldParseSourcesWhenSnapshotIsCorrupted() throws Exception {
+        snapshot.load(sources(), new OrderMergeStrategy());
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertSameModel(YamlUtils.loadFrom(sources(), new OrderMergeStrategy()),
+                snapshot.load(sources(), new OrderMergeStrategy()));
+    }
+
+    private List<YamlSource> sources() {
+        return Arrays.asList(YamlSource.of(jenkins), YamlSource.of(tools));
+    }
+
+    private static void assertSameModel(CNode expected, CNode actual) throws Exception {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.getType(), actual.getType());
+        if (expected.getSource() != null) {
+            assertEquals(expected.getSource().file, actual.getSource().file);
+            assertEquals(expected.getSource().line, actual.getSource().line);
+        }
+        switch (expected.getType()) {
+            case MAPPING:
+                final Mapping mapping = expected.asMapping();
+                assertEquals(mapping.keySet(), actual.asMapping().keySet());
+                for (String key : mapping.keySet()) {
+                    assertSameModel(mapping.get(key), actual.asMapping().get(key));
+                }
+                break;
+            case SEQUENCE:
+                final Sequence sequence = expected.asSequence();
+                assertEquals(sequence.size(), actual.asSequence().size());
+                for (int i = 0; i < sequence.size(); i++) {
+                    assertSameModel(sequence.get(i), actual.asSequence().get(i));
+                }
+                break;
+            default:
+                assertEquals(expected.asScalar().getValue(), actual.asScalar().getValue());
+                assertEquals(expected.asScalar().getFormat(), actual.asScalar().getFormat());
+        }
+    }
+}
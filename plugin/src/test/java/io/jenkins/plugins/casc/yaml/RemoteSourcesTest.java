@@ -0,0 +1,163 @@
+package io.jenkins.plugins.casc.yaml;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jenkins.plugins.casc.ConfiguratorException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RemoteSourcesTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private HttpServer server;
+    private final CountDownLatch concurrent = new CountDownLatch(2);
+    private final AtomicInteger flakyRequests = new AtomicInteger();
+    private final AtomicInteger missingRequests = new AtomicInteger();
+    private final AtomicInteger updatedRequests = new AtomicInteger();
+    private long retryDelay;
+    private int retries;
+
+    @Before
+    public void startServer() throws Exception {
+        retryDelay = RemoteSources.RETRY_DELAY_MILLIS;
+        retries = RemoteSources.RETRIES;
+        RemoteSources.RETRY_DELAY_MILLIS = 1;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try {
+                final String path = exchange.getRequestURI().getPath();
+                if (path.startsWith("/slow")) {
+                    // both slow sources must be requested before either one is served
+                    concurrent.countDown();
+                    concurrent.await(10, TimeUnit.SECONDS);
+                }
+                if (path.equals("/flaky.yaml") && flakyRequests.incrementAndGet() == 1) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                if (path.equals("/updated.yaml")) {
+                    // cached, then unavailable once, then updated
+                    final int request = updatedRequests.incrementAndGet();
+                    if (request == 2) {
+                        exchange.sendResponseHeaders(503, -1);
+                        return;
+                    }
+                    final byte[] body = ("version: " + (request == 1 ? 1 : 2) + "\n").getBytes(UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                    return;
+                }
+                if (path.equals("/missing.yaml")) {
+                    missingRequests.incrementAndGet();
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                final byte[] body = ("source: " + path + "\n").getBytes(UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        RemoteSources.RETRY_DELAY_MILLIS = retryDelay;
+        RemoteSources.RETRIES = retries;
+    }
+
+    @Test
+    public void shouldFetchConcurrentlyAndKeepOrder() throws Exception {
+        final YamlSource local = YamlSource.of(IOUtils.toInputStream("source: local\n", UTF_8));
+        final List<YamlSource> sources = Arrays.asList(YamlSource.of(url("/slow-1.yaml")), local,
+                YamlSource.of(url("/slow-2.yaml")));
+
+        final List<YamlSource> fetched = RemoteSources.prefetch(sources);
+
+        assertEquals(0, concurrent.getCount());
+        assertEquals(url("/slow-1.yaml"), fetched.get(0).source());
+        assertSame(local, fetched.get(1));
+        assertEquals(url("/slow-2.yaml"), fetched.get(2).source());
+        assertEquals("source: /slow-1.yaml\n", content(fetched.get(0)));
+        assertEquals("source: /slow-2.yaml\n", content(fetched.get(2)));
+    }
+
+    @Test
+    public void shouldRetryFailedFetch() throws Exception {
+        final List<YamlSource> fetched = RemoteSources.prefetch(Arrays.asList(YamlSource.of(url("/flaky.yaml"))));
+        assertEquals("source: /flaky.yaml\n", content(fetched.get(0)));
+        assertEquals(2, flakyRequests.get());
+    }
+
+    @Test
+    public void shouldRetryBeforeUsingCachedCopy() throws Exception {
+        final HttpSourceCache cache = new HttpSourceCache(tempFolder.newFolder("cache"));
+        assertEquals("version: 1\n", new String(cache.fetch(url("/updated.yaml"), false), UTF_8));
+
+        assertEquals("version: 2\n", RemoteSources.fetch(url("/updated.yaml"), cache, true));
+        assertEquals(3, updatedRequests.get());
+    }
+
+    @Test
+    public void shouldReportFailingSource() throws Exception {
+        RemoteSources.RETRIES = 0;
+        try {
+            RemoteSources.prefetch(Arrays.asList(YamlSource.of(url("/ok.yaml")), YamlSource.of("http://localhost:1/none.yaml")));
+            fail("expected a ConfiguratorException");
+        } catch (ConfiguratorException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("http://localhost:1/none.yaml"));
+        }
+    }
+
+    @Test
+    public void shouldNotRetryClientError() throws Exception {
+        try {
+            RemoteSources.prefetch(Arrays.asList(YamlSource.of(url("/missing.yaml"))));
+            fail("expected a ConfiguratorException");
+        } catch (ConfiguratorException e) {
+            assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("HTTP 404"));
+        }
+        assertEquals(1, missingRequests.get());
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private static String content(YamlSource source) throws IOException {
+        try (Reader reader = source.read()) {
+            return IOUtils.toString(reader);
+        }
+    }
+}
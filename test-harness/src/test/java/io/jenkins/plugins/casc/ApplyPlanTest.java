@@ -0,0 +1,99 @@
+package io.jenkins.plugins.casc;
+
+import hudson.model.View;
+import hudson.security.HudsonPrivateSecurityRealm;
+import hudson.security.SecurityRealm;
+import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
+import io.jenkins.plugins.casc.impl.configurators.DataBoundConfigurator;
+import io.jenkins.plugins.casc.impl.configurators.HeteroDescribableConfigurator;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.yaml.MergeStrategyFactory;
+import io.jenkins.plugins.casc.yaml.YamlSource;
+import io.jenkins.plugins.casc.yaml.YamlUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import net.sf.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ApplyPlanTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void shouldSeedRegistryFromRecordedPlan() throws Exception {
+        final String config = getClass().getResource("admin.yml").toExternalForm();
+        ConfigurationAsCode.get().configure(config);
+
+        final File file = new File(j.jenkins.getRootDir(), "casc-apply-plan.json");
+        assertTrue(file.exists());
+        final String key = ApplyPlan.key(load(config));
+        assertEquals(key, JSONObject.fromObject(new String(Files.readAllBytes(file.toPath()), UTF_8)).getString("key"));
+
+        final DefaultConfiguratorRegistry registry = new DefaultConfiguratorRegistry();
+        assertTrue(new ApplyPlan(file).replay(key, registry) > 0);
+        assertTrue(registry.getSeeded().get(SecurityRealm.class) instanceof HeteroDescribableConfigurator);
+        assertTrue(registry.lookup(HudsonPrivateSecurityRealm.class) instanceof DataBoundConfigurator);
+        assertEquals(0, registry.getCacheStats().requestCount());
+
+        // once released, the configurator is resolved again
+        registry.releaseSeeded();
+        assertTrue(registry.lookup(HudsonPrivateSecurityRealm.class) instanceof DataBoundConfigurator);
+        assertEquals(1, registry.getCacheStats().missCount());
+    }
+
+    @Test
+    public void shouldOnlyRecordLookupsOfApply() throws Exception {
+        // export looks configurators up for the whole instance, including the views
+        ConfigurationAsCode.get().export(new ByteArrayOutputStream());
+        ConfigurationAsCode.get().configure(getClass().getResource("admin.yml").toExternalForm());
+
+        final File file = new File(j.jenkins.getRootDir(), "casc-apply-plan.json");
+        final String plan = new String(Files.readAllBytes(file.toPath()), UTF_8);
+        assertTrue(plan, plan.contains("\"" + HudsonPrivateSecurityRealm.class.getName() + "\""));
+        assertFalse(plan, plan.contains("\"" + View.class.getName() + "\""));
+    }
+
+    @Test
+    public void shouldIgnorePlanOfOtherModel() throws Exception {
+        ConfigurationAsCode.get().configure(getClass().getResource("admin.yml").toExternalForm());
+        final File file = new File(j.jenkins.getRootDir(), "casc-apply-plan.json");
+
+        final DefaultConfiguratorRegistry registry = new DefaultConfiguratorRegistry();
+        assertEquals(0, new ApplyPlan(file).replay(ApplyPlan.key(load(getClass().getResource("JenkinsConfigTest.yml").toExternalForm())), registry));
+        assertTrue(registry.getSeeded().isEmpty());
+    }
+
+    @Test
+    public void shouldDiscardPlanReferencingUnknownTypes() throws Exception {
+        final File file = new File(j.jenkins.getRootDir(), "casc-apply-plan.json");
+        final JSONObject json = new JSONObject();
+        json.put("key", "key");
+        final JSONObject known = new JSONObject();
+        known.put("type", HudsonPrivateSecurityRealm.class.getName());
+        known.put("kind", "dataBound");
+        final JSONObject unknown = new JSONObject();
+        unknown.put("type", "org.example.Removed");
+        unknown.put("kind", "dataBound");
+        json.put("configurators", Arrays.asList(known, unknown));
+        Files.write(file.toPath(), json.toString().getBytes(UTF_8));
+
+        final DefaultConfiguratorRegistry registry = new DefaultConfiguratorRegistry();
+        assertEquals(0, new ApplyPlan(file).replay("key", registry));
+        assertTrue(registry.getSeeded().isEmpty());
+    }
+
+    private static Mapping load(String url) throws Exception {
+        return YamlUtils.loadFrom(Collections.singletonList(YamlSource.of(url)), MergeStrategyFactory.getMergeStrategy());
+    }
+}
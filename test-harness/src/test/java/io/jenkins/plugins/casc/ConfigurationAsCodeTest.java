@@ -10,6 +10,7 @@ import hudson.util.FormValidation;
 import io.jenkins.plugins.casc.misc.ConfiguredWithCode;
 import io.jenkins.plugins.casc.misc.JenkinsConfiguredWithCodeRule;
 import io.jenkins.plugins.casc.model.CNode;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -257,6 +258,23 @@ public class ConfigurationAsCodeTest {
         assertThat(exported, is(expected));
     }
 
+    @Test
+    @ConfiguredWithCode("multi-line1.yml")
+    public void parallel_export_matches_sequential_export() throws Exception {
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        ConfigurationAsCode.get().export(sequential);
+
+        int parallelism = ParallelExport.PARALLELISM;
+        ParallelExport.PARALLELISM = 4;
+        try {
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            ConfigurationAsCode.get().export(parallel);
+            assertEquals(sequential.toString("UTF-8"), parallel.toString("UTF-8"));
+        } finally {
+            ParallelExport.PARALLELISM = parallelism;
+        }
+    }
+
     @Test
     public void testHtmlDocStringRetrieval() throws Exception {
         String expectedDocString = "<div>\n"
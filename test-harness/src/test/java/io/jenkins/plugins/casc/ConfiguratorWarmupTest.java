@@ -0,0 +1,63 @@
+package io.jenkins.plugins.casc;
+
+import io.jenkins.plugins.casc.impl.DefaultConfiguratorRegistry;
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.yaml.MergeStrategyFactory;
+import io.jenkins.plugins.casc.yaml.YamlSource;
+import io.jenkins.plugins.casc.yaml.YamlUtils;
+import java.util.Collections;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConfiguratorWarmupTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void shouldResolveConfiguratorsReferencedByModel() throws Exception {
+        final Mapping model = load("jenkins:\n"
+                + "  systemMessage: warm\n"
+                + "  securityRealm:\n"
+                + "    local:\n"
+                + "      allowsSignup: false\n"
+                + "      users:\n"
+                + "        - id: admin\n"
+                + "          password: secret\n"
+                + "        - id: dev\n"
+                + "          password: secret\n"
+                + "  authorizationStrategy: unknownStrategy\n"
+                + "unknownRoot: {}\n");
+
+        final DefaultConfiguratorRegistry registry = j.jenkins.getExtensionList(DefaultConfiguratorRegistry.class).get(0);
+        final ConfiguratorWarmup.Report report = new ConfiguratorWarmup(registry).submit(model, 2).get();
+
+        assertTrue("expected several types to be resolved, got " + report.getTypes(), report.getTypes() >= 3);
+        assertTrue(report.getUnresolved().toString(), report.getUnresolved().contains("unknownRoot"));
+        assertTrue(report.getUnresolved().toString(), report.getUnresolved().stream().anyMatch(u -> u.endsWith(":unknownStrategy")));
+        assertTrue(report.getCoveredNodes() < report.getNodes());
+        // model isn't consumed by warm-up
+        assertEquals(2, model.size());
+
+        // resolved configurators and their attributes are handed over to the apply
+        assertEquals(report.getTypes(), registry.getSeeded().size());
+        final Configurator jenkins = registry.lookupRootElement("jenkins");
+        assertNotNull(registry.getSeededAttributes(jenkins));
+        registry.releaseSeeded();
+        assertTrue(registry.getSeeded().isEmpty());
+        assertNull(registry.getSeededAttributes(jenkins));
+    }
+
+    private static Mapping load(String yaml) throws Exception {
+        return YamlUtils.loadFrom(Collections.singletonList(YamlSource.of(IOUtils.toInputStream(yaml, UTF_8))),
+                MergeStrategyFactory.getMergeStrategy());
+    }
+}
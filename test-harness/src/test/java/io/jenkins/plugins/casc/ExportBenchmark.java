@@ -0,0 +1,57 @@
+package io.jenkins.plugins.casc;
+
+import io.jenkins.plugins.casc.misc.jmh.CascJmhBenchmarkState;
+import javax.annotation.Nonnull;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.model.JenkinsLocationConfiguration;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Compares sequential export with {@link ParallelExport parallel export}, and with the backup export after a single
+ * setting changed.
+ */
+@JmhBenchmark
+public class ExportBenchmark {
+
+    public static class MyState extends CascJmhBenchmarkState {
+        @Nonnull
+        @Override
+        protected String getResourcePath() {
+            return "benchmarks.yml";
+        }
+
+        @Nonnull
+        @Override
+        protected Class<?> getEnclosingClass() {
+            return ExportBenchmark.class;
+        }
+    }
+
+    @Benchmark
+    public void sequential(MyState state) throws Exception {
+        export(0);
+    }
+
+    @Benchmark
+    public void parallel(MyState state) throws Exception {
+        export(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Benchmark
+    public void backupAfterSingleChange(MyState state) throws Exception {
+        // saving invalidates the location configuration only, everything else is reused
+        JenkinsLocationConfiguration.get().setAdminAddress("admin-" + System.nanoTime() + "@acme.org");
+        ConfigurationAsCode.get().export(new NullOutputStream(), ExportCache.forBackup());
+    }
+
+    private static void export(int parallelism) throws Exception {
+        final int previous = ParallelExport.PARALLELISM;
+        ParallelExport.PARALLELISM = parallelism;
+        try {
+            ConfigurationAsCode.get().export(new NullOutputStream());
+        } finally {
+            ParallelExport.PARALLELISM = previous;
+        }
+    }
+}
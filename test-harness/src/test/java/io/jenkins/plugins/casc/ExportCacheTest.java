@@ -0,0 +1,171 @@
+package io.jenkins.plugins.casc;
+
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import hudson.model.Descriptor;
+import hudson.tasks.Shell;
+import io.jenkins.plugins.casc.misc.ConfiguredWithCode;
+import io.jenkins.plugins.casc.misc.JenkinsConfiguredWithCodeRule;
+import io.jenkins.plugins.casc.model.CNode;
+import io.jenkins.plugins.casc.model.Scalar;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import jenkins.model.JenkinsLocationConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule.WebClient;
+
+import static com.gargoylesoftware.htmlunit.HttpMethod.POST;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ExportCacheTest {
+
+    @Rule
+    public JenkinsConfiguredWithCodeRule j = new JenkinsConfiguredWithCodeRule();
+
+    private boolean enabled;
+
+    @Before
+    public void enableCache() {
+        enabled = ExportCache.ENABLED;
+        ExportCache.ENABLED = true;
+        ExportCache.get().invalidateAll();
+    }
+
+    @After
+    public void restore() {
+        ExportCache.ENABLED = enabled;
+    }
+
+    @Test
+    public void shouldReuseUnchangedRootElements() throws Exception {
+        ConfigurationContext context = new ConfigurationContext(ConfiguratorRegistry.get());
+        RootElementConfigurator root = context.lookupRootElement("jenkins");
+        CNode first = ExportCache.get().describe(root, context);
+        assertThat(ExportCache.get().describe(root, context), sameInstance(first));
+
+        j.jenkins.setSystemMessage("changed");
+        assertThat(ExportCache.get().describe(root, context), not(sameInstance(first)));
+    }
+
+    @Test
+    public void shouldExportChangedDescriptors() throws Exception {
+        assertThat(export(), not(containsString("cache@acme.org")));
+
+        JenkinsLocationConfiguration.get().setAdminAddress("cache@acme.org");
+        assertThat(export(), containsString("cache@acme.org"));
+    }
+
+    @Test
+    public void shouldNotKeepDescriptionComputedDuringSave() throws Exception {
+        JenkinsLocationConfiguration location = JenkinsLocationConfiguration.get();
+        CNode stale = ExportCache.get().describe(location, () -> {
+            CNode node = new Scalar("stale");
+            location.setAdminAddress("concurrent@acme.org");
+            return node;
+        });
+        CNode fresh = new Scalar("fresh");
+        assertThat(ExportCache.get().describe(location, () -> fresh), sameInstance(fresh));
+        assertThat(ExportCache.get().describe(location, () -> stale), sameInstance(fresh));
+    }
+
+    @Test
+    public void shouldOnlyDescribeSavedDescriptorsForBackup() throws Exception {
+        ExportCache.ENABLED = false;
+        ExportCache backup = ExportCache.forBackup();
+        Descriptor shell = j.jenkins.getDescriptorOrDie(Shell.class);
+        CNode first = backup.describe(shell, () -> new Scalar("shell"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConfigurationAsCode.get().export(out, backup);
+
+        JenkinsLocationConfiguration.get().setAdminAddress("backup@acme.org");
+        assertThat(backup.describe(shell, () -> new Scalar("again")), sameInstance(first));
+        out.reset();
+        ConfigurationAsCode.get().export(out, backup);
+        assertThat(out.toString("UTF-8"), containsString("backup@acme.org"));
+    }
+
+    @Test
+    public void shouldNotKeepRootElementsForBackup() throws Exception {
+        ExportCache backup = ExportCache.forBackup();
+        ConfigurationContext context = new ConfigurationContext(ConfiguratorRegistry.get());
+        context.setExportCache(backup);
+        RootElementConfigurator jenkins = context.lookupRootElement("jenkins");
+        assertThat(backup.describe(jenkins, context), not(sameInstance(backup.describe(jenkins, context))));
+    }
+
+    @Test
+    public void shouldSpliceUnchangedRootElementsForBackup() throws Exception {
+        ExportCache.forBackup().forgetSerialized();
+        assertThat(ConfigurationAsCode.get().exportBackup().isComplete(), is(false));
+        assertThat(ConfigurationAsCode.get().exportBackup().isUnchanged(), is(true));
+
+        JenkinsLocationConfiguration.get().setAdminAddress("splice@acme.org");
+        ExportCache.Splice changed = ConfigurationAsCode.get().exportBackup();
+        assertThat(changed.getChanged().keySet(), contains("unclassified"));
+
+        ByteArrayOutputStream spliced = new ByteArrayOutputStream();
+        changed.writeTo(spliced);
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        ConfigurationAsCode.get().export(full, ExportCache.forBackup());
+        assertThat(spliced.toString("UTF-8"), is(full.toString("UTF-8")));
+    }
+
+    @Test
+    @ConfiguredWithCode("admin.yml")
+    public void shouldAnswerNotModifiedUntilSomethingIsSaved() throws Exception {
+        WebClient client = j.createWebClient().login("admin", "admin");
+        WebRequest request = new WebRequest(client.createCrumbedUrl("configuration-as-code/export"), POST);
+        WebResponse response = client.loadWebResponse(request);
+        assertThat(response.getStatusCode(), is(200));
+        String etag = response.getResponseHeaderValue("ETag");
+        assertThat(etag, notNullValue());
+
+        request.setAdditionalHeader("If-None-Match", etag);
+        assertThat(client.loadWebResponse(request).getStatusCode(), is(304));
+
+        j.jenkins.setSystemMessage("changed");
+        response = client.loadWebResponse(request);
+        assertThat(response.getStatusCode(), is(200));
+        assertThat(response.getResponseHeaderValue("ETag"), not(etag));
+    }
+
+    @Test
+    @ConfiguredWithCode("admin.yml")
+    public void shouldTagEachPathAndFormatSeparately() throws Exception {
+        WebClient client = j.createWebClient().login("admin", "admin");
+        WebRequest full = new WebRequest(client.createCrumbedUrl("configuration-as-code/export"), POST);
+        String etag = client.loadWebResponse(full).getResponseHeaderValue("ETag");
+
+        WebRequest partial = new WebRequest(new URL(client.createCrumbedUrl("configuration-as-code/export")
+                + "&path=/jenkins/securityRealm"), POST);
+        partial.setAdditionalHeader("If-None-Match", etag);
+        WebResponse response = client.loadWebResponse(partial);
+        assertThat(response.getStatusCode(), is(200));
+        assertThat(response.getResponseHeaderValue("ETag"), not(etag));
+
+        WebRequest json = new WebRequest(new URL(client.createCrumbedUrl("configuration-as-code/export")
+                + "&format=json"), POST);
+        json.setAdditionalHeader("If-None-Match", etag);
+        response = client.loadWebResponse(json);
+        assertThat(response.getStatusCode(), is(200));
+        assertThat(response.getResponseHeaderValue("ETag"), not(etag));
+
+        json.setAdditionalHeader("If-None-Match", response.getResponseHeaderValue("ETag"));
+        assertThat(client.loadWebResponse(json).getStatusCode(), is(304));
+    }
+
+    private static String export() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConfigurationAsCode.get().export(out);
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,89 @@
+package io.jenkins.plugins.casc;
+
+import hudson.cli.CLICommandInvoker;
+import io.jenkins.plugins.casc.misc.ConfiguredWithCode;
+import io.jenkins.plugins.casc.misc.JenkinsConfiguredWithCodeRule;
+import io.jenkins.plugins.casc.yaml.ExportFormat;
+import java.io.ByteArrayOutputStream;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static hudson.cli.CLICommandInvoker.Matcher.failedWith;
+import static hudson.cli.CLICommandInvoker.Matcher.succeeded;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class ExportPathTest {
+
+    @Rule
+    public JenkinsConfiguredWithCodeRule j = new JenkinsConfiguredWithCodeRule();
+
+    @Test
+    @ConfiguredWithCode("SaveSessionTest.yml")
+    public void shouldExportDescriptorSection() throws Exception {
+        String exported = export("/unclassified/location");
+        assertThat(exported, containsString("unclassified:\n  location:\n"));
+        assertThat(exported, containsString("admin@acme.org"));
+        assertThat(exported, not(containsString("jenkins:")));
+    }
+
+    @Test
+    @ConfiguredWithCode("SaveSessionTest.yml")
+    public void shouldExportAttributeSection() throws Exception {
+        String exported = export("/jenkins/systemMessage");
+        assertThat(exported, containsString("configuration as code - SaveSessionTest"));
+        assertThat(exported, not(containsString("numExecutors")));
+        assertThat(exported, not(containsString("unclassified:")));
+    }
+
+    @Test
+    @ConfiguredWithCode("SaveSessionTest.yml")
+    public void shouldExportRootElement() throws Exception {
+        String exported = export("jenkins");
+        assertThat(exported, containsString("numExecutors: 3"));
+        assertThat(exported, not(containsString("unclassified:")));
+    }
+
+    @Test(expected = ConfiguratorException.class)
+    public void shouldRejectUnknownRootElement() throws Exception {
+        export("/nope/location");
+    }
+
+    @Test(expected = ConfiguratorException.class)
+    public void shouldRejectUnknownAttribute() throws Exception {
+        export("/jenkins/nope");
+    }
+
+    @Test
+    @ConfiguredWithCode("SaveSessionTest.yml")
+    public void shouldExportSectionFromCli() {
+        CLICommandInvoker.Result result = new CLICommandInvoker(j, "export-configuration")
+                .authorizedTo(Jenkins.ADMINISTER)
+                .invokeWithArgs("--path", "/unclassified/location");
+        assertThat(result, succeeded());
+        assertThat(result.stdout(), containsString("admin@acme.org"));
+        assertThat(result.stdout(), not(containsString("jenkins:")));
+
+        result = new CLICommandInvoker(j, "export-configuration")
+                .authorizedTo(Jenkins.ADMINISTER)
+                .invokeWithArgs("--path", "/unclassified/nope");
+        assertThat(result, failedWith(1));
+    }
+
+    @Test
+    public void shouldRejectUnknownFormatFromCli() {
+        CLICommandInvoker.Result result = new CLICommandInvoker(j, "export-configuration")
+                .authorizedTo(Jenkins.ADMINISTER)
+                .invokeWithArgs("--format", "xml");
+        assertThat(result, failedWith(1));
+        assertThat(result.stderr(), containsString("xml"));
+    }
+
+    private static String export(String path) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConfigurationAsCode.get().export(out, ExportPath.parse(path), ExportFormat.YAML);
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,91 @@
+package io.jenkins.plugins.casc;
+
+import io.jenkins.plugins.casc.model.Mapping;
+import io.jenkins.plugins.casc.yaml.ModelSnapshot;
+import io.jenkins.plugins.casc.yaml.OrderMergeStrategy;
+import io.jenkins.plugins.casc.yaml.YamlSource;
+import io.jenkins.plugins.casc.yaml.YamlUtils;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares loading a 5MB configuration by parsing it with loading it from a {@link ModelSnapshot}.
+ */
+@JmhBenchmark
+public class ModelSnapshotBenchmark {
+
+    private static final long SIZE = 5 * 1024 * 1024;
+
+    @State(Scope.Benchmark)
+    public static class Sources {
+
+        Path directory;
+        List<YamlSource> sources;
+        ModelSnapshot snapshot;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            directory = Files.createTempDirectory("casc-snapshot-benchmark");
+            final Path yaml = directory.resolve("jenkins.yaml");
+            write(yaml);
+            sources = Collections.singletonList(YamlSource.of(yaml));
+            snapshot = new ModelSnapshot(new File(directory.toFile(), "casc-model.snapshot"));
+            // write the snapshot for the following loads
+            snapshot.load(sources, new OrderMergeStrategy());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            FileUtils.deleteDirectory(directory.toFile());
+        }
+
+        private static void write(Path yaml) throws IOException {
+            final StringBuilder agent = new StringBuilder();
+            long written = 0;
+            try (BufferedWriter out = Files.newBufferedWriter(yaml, UTF_8)) {
+                out.write("jenkins:\n  systemMessage: \"benchmark\"\n  nodes:\n");
+                for (int i = 0; written < SIZE; i++) {
+                    agent.setLength(0);
+                    agent.append("    - permanent:\n")
+                            .append("        name: \"agent-").append(i).append("\"\n")
+                            .append("        labelString: \"linux docker x86_64 pool-").append(i % 16).append("\"\n")
+                            .append("        numExecutors: ").append(1 + i % 4).append('\n')
+                            .append("        remoteFS: \"/home/jenkins/agent-").append(i).append("\"\n")
+                            .append("        launcher:\n")
+                            .append("          jnlp:\n")
+                            .append("            workDirSettings:\n")
+                            .append("              disabled: false\n")
+                            .append("              failIfWorkDirIsMissing: false\n")
+                            .append("              internalDir: \"remoting\"\n");
+                    out.append(agent);
+                    written += agent.length();
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Mapping parse(Sources state) throws Exception {
+        return YamlUtils.loadFrom(state.sources, new OrderMergeStrategy());
+    }
+
+    @Benchmark
+    public Mapping snapshot(Sources state) throws Exception {
+        return state.snapshot.load(state.sources, new OrderMergeStrategy());
+    }
+}
@@ -0,0 +1,30 @@
+package io.jenkins.plugins.casc;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class RegistryMetricsTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void shouldCountRegistryHitsAndMisses() throws Exception {
+        ConfigurationAsCode.get().configure(getClass().getResource("admin.yml").toExternalForm());
+        ConfigurationAsCode.get().configure(getClass().getResource("admin.yml").toExternalForm());
+
+        assertThat(CascMetrics.get().getRegistryMisses(), greaterThan(0L));
+        assertThat(CascMetrics.get().getRegistryHits(), greaterThan(0L));
+
+        CascMetrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertThat((Long) server.getAttribute(new ObjectName(CascMetrics.OBJECT_NAME), "RegistryHits"), greaterThan(0L));
+    }
+}
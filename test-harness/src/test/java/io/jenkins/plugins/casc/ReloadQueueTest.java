@@ -0,0 +1,46 @@
+package io.jenkins.plugins.casc;
+
+import io.jenkins.plugins.casc.misc.JenkinsConfiguredWithCodeRule;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ReloadQueueTest {
+
+    @Rule
+    public JenkinsConfiguredWithCodeRule j = new JenkinsConfiguredWithCodeRule();
+
+    @Test
+    public void shouldCoalesceRequestsWhileQueued() throws Exception {
+        ReloadQueue queue = ReloadQueue.get();
+        ReloadQueue.Reload first;
+        ReloadQueue.Reload second;
+        // holding the queue monitor prevents the reload thread from picking the queued reload
+        synchronized (queue) {
+            first = queue.submit("test");
+            second = queue.submit("test");
+        }
+        assertSame(first, second);
+        assertTrue(first.await(1, TimeUnit.MINUTES));
+        assertEquals(ReloadQueue.Status.SUCCEEDED, first.getStatus());
+        assertEquals(1, first.toJSON().getInt("coalesced"));
+
+        ReloadQueue.Reload next = queue.submit("test");
+        assertNotSame(first, next);
+        assertTrue(next.await(1, TimeUnit.MINUTES));
+        assertSame(next, queue.getReload(next.getId()));
+    }
+
+    @Test
+    public void shouldReloadSynchronously() throws Exception {
+        ReloadQueue.Reload reload = ReloadQueue.get().reloadAndWait("test");
+        assertTrue(reload.isDone());
+        assertEquals(ReloadQueue.Status.SUCCEEDED, reload.getStatus());
+        assertTrue(reload.toJSON().has("durationMillis"));
+    }
+}
@@ -0,0 +1,69 @@
+package io.jenkins.plugins.casc;
+
+import hudson.model.Saveable;
+import io.jenkins.plugins.casc.misc.JenkinsConfiguredWithCodeRule;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.model.JenkinsLocationConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class SaveSessionTest {
+
+    @Rule
+    public JenkinsConfiguredWithCodeRule j = new JenkinsConfiguredWithCodeRule();
+
+    @Test
+    public void shouldWriteEachChangedSaveableOnce() throws Exception {
+        ConfigurationAsCode casc = ConfigurationAsCode.get();
+        casc.configure(getClass().getResource("SaveSessionTest.yml").toExternalForm());
+
+        assertEquals("configuration as code - SaveSessionTest", j.jenkins.getSystemMessage());
+        assertEquals(3, j.jenkins.getNumExecutors());
+        assertEquals("admin@acme.org", JenkinsLocationConfiguration.get().getAdminAddress());
+
+        SaveSession session = casc.getLastSaveSession();
+        assertNotNull(session);
+        Map<String, Integer> writes = session.getWritesPerFile();
+        assertThat(writes, hasEntry(new File(j.jenkins.getRootDir(), "config.xml").getAbsolutePath(), 1));
+        assertThat(writes, hasEntry(
+                new File(j.jenkins.getRootDir(), JenkinsLocationConfiguration.class.getName() + ".xml").getAbsolutePath(), 1));
+        assertThat(writes.values(), everyItem(is(1)));
+    }
+
+    @Test
+    public void shouldSaveDeferredSaveablesOnceOnCommit() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        Saveable saveable = saves::incrementAndGet;
+
+        try (SaveSession session = SaveSession.open()) {
+            session.defer(saveable);
+            session.defer(saveable);
+            session.defer(saveable);
+            assertEquals(0, saves.get());
+            session.commit();
+        }
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    public void shouldOnlyCountWritesOfApplyingThread() throws Exception {
+        try (SaveSession session = SaveSession.open()) {
+            Thread other = new Thread(() -> JenkinsLocationConfiguration.get().setAdminAddress("other@acme.org"));
+            other.start();
+            other.join();
+            assertEquals(0, session.getWrites());
+
+            JenkinsLocationConfiguration.get().setAdminAddress("session@acme.org");
+            assertEquals(1, session.getWrites());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.jenkins.plugins.casc;
+
+import hudson.util.Secret;
+import io.jenkins.plugins.casc.impl.configurators.PrimitiveConfigurator;
+import io.jenkins.plugins.casc.misc.jmh.CascJmhBenchmarkState;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Describes thousands of secrets, as when exporting many credentials, with and without caching their encrypted form.
+ */
+@JmhBenchmark
+public class SecretExportBenchmark {
+
+    private static final int SECRETS = 5000;
+
+    public static class MyState extends CascJmhBenchmarkState {
+
+        final List<Secret> secrets = new ArrayList<>();
+        Configurator configurator;
+        ConfigurationContext context;
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+            for (int i = 0; i < SECRETS; i++) {
+                secrets.add(Secret.fromString("credential-password-" + i));
+            }
+            configurator = new PrimitiveConfigurator(Secret.class);
+            context = new ConfigurationContext(ConfiguratorRegistry.get());
+        }
+
+        @Nonnull
+        @Override
+        protected String getResourcePath() {
+            return "benchmarks.yml";
+        }
+
+        @Nonnull
+        @Override
+        protected Class<?> getEnclosingClass() {
+            return SecretExportBenchmark.class;
+        }
+    }
+
+    @Benchmark
+    public void cached(MyState state, Blackhole blackhole) throws Exception {
+        describe(state, blackhole, true);
+    }
+
+    @Benchmark
+    public void uncached(MyState state, Blackhole blackhole) throws Exception {
+        describe(state, blackhole, false);
+    }
+
+    private static void describe(MyState state, Blackhole blackhole, boolean cached) throws Exception {
+        final boolean previous = PrimitiveConfigurator.CACHE_ENCRYPTED_SECRETS;
+        PrimitiveConfigurator.CACHE_ENCRYPTED_SECRETS = cached;
+        try {
+            for (Secret secret : state.secrets) {
+                blackhole.consume(state.configurator.describe(secret, state.context));
+            }
+        } finally {
+            PrimitiveConfigurator.CACHE_ENCRYPTED_SECRETS = previous;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.jenkins.plugins.casc;
+
+import io.jenkins.plugins.casc.misc.JenkinsConfiguredWithCodeRule;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.EnvironmentVariables;
+import org.junit.rules.RuleChain;
+import org.jvnet.hudson.test.LoggerRule;
+
+import static io.jenkins.plugins.casc.misc.Util.assertLogContains;
+import static org.junit.Assert.assertEquals;
+
+public class StartupPreparationTest {
+
+    private final LoggerRule logging = new LoggerRule();
+
+    @Rule
+    public RuleChain chain = RuleChain
+            .outerRule(logging.record(Logger.getLogger(StartupPreparation.class.getName()), Level.FINE).capture(16))
+            .around(new EnvironmentVariables()
+                    .set("CASC_JENKINS_CONFIG", JenkinsConfigTest.class.getResource("JenkinsConfigTest.yml").toExternalForm()))
+            .around(new JenkinsConfiguredWithCodeRule());
+
+    @Test
+    public void shouldApplyConfigurationPreparedAtStartup() {
+        assertLogContains(logging, "Configuration prepared in");
+        final Jenkins j = Jenkins.getInstance();
+        assertEquals("configuration as code - JenkinsConfigTest", j.getSystemMessage());
+        assertEquals(10, j.getQuietPeriod());
+        assertEquals(1, ConfigurationAsCode.get().getSources().size());
+    }
+}
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.casc.auto;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Three-way merge of a 10k lines configuration: the user changed and reordered some agents, the new system
+ * configuration changed others.
+ */
+@JmhBenchmark
+public class PatchConfigBenchmark {
+
+    private static final int AGENTS = 2000;
+
+    @State(Scope.Benchmark)
+    public static class Configs {
+
+        Path directory;
+        File original;
+        File baseline;
+        File system;
+        File user;
+        File target;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            directory = Files.createTempDirectory("casc-patch-benchmark");
+            original = directory.resolve("baseline.yaml").toFile();
+            baseline = directory.resolve("casc_config_auto/jenkins.baseline.yaml").toFile();
+            system = directory.resolve("jenkins.yaml").toFile();
+            user = directory.resolve("jenkins.backup.yaml").toFile();
+            target = directory.resolve("casc_config_auto/jenkins.yaml").toFile();
+            Files.createDirectories(baseline.getParentFile().toPath());
+            write(original, "v1", -1, false);
+            write(system, "v2", 7, false);
+            write(user, "v1", 11, true);
+        }
+
+        /** each merge replaces the baseline with the system configuration, and records the inputs as patched */
+        @Setup(Level.Invocation)
+        public void resetBaseline() throws IOException {
+            Files.copy(original.toPath(), baseline.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(directory.resolve("casc_config_auto/jenkins.inputs.sha256"));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            FileUtils.deleteDirectory(directory.toFile());
+        }
+
+        /**
+         * Write a configuration of 5 lines per agent, changing the remote FS of every <code>changed</code> agent.
+         */
+        private static void write(File file, String message, int changed, boolean reversed) throws IOException {
+            try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), UTF_8)) {
+                out.write("jenkins:\n  systemMessage: " + message + "\n  nodes:\n");
+                for (int i = 0; i < AGENTS; i++) {
+                    final int agent = reversed ? AGENTS - 1 - i : i;
+                    out.write("  - permanent:\n");
+                    out.write("      name: agent-" + agent + "\n");
+                    out.write("      remoteFS: /home/" + (changed > 0 && agent % changed == 0 ? message : "jenkins") + "\n");
+                    out.write("      numExecutors: 2\n");
+                    out.write("      labelString: linux docker\n");
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void patchConfig(Configs configs) {
+        PatchConfig.patchConfig(configs.system, configs.user, configs.target);
+    }
+}